@@ -0,0 +1,98 @@
+package org.example.service;
+
+import org.example.MutantDetectorApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Camino completo de POST /mutant (hash, búsqueda, detección y persistencia) contra el H2 en
+ * memoria de la aplicación, sin la capa HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzeDnaBenchmark {
+
+    /** KNOWN: el ADN ya está guardado. NEW: cada invocación analiza y guarda un ADN distinto. */
+    public enum Scenario { KNOWN, NEW }
+
+    @Param({"6", "64", "512", "4096"})
+    private int size;
+
+    @Param({"EARLY_EXIT", "FULL_SCAN"})
+    private DnaMatrices.Density density;
+
+    @Param({"KNOWN", "NEW"})
+    private Scenario scenario;
+
+    /** Filtro de claves: con {@code true} los ADN nuevos no consultan la base antes de insertarse. */
+    @Param({"true", "false"})
+    private boolean filter;
+
+    private final AtomicLong variants = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private MutantService mutantService;
+    private String[] dna;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(MutantDetectorApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--mutant.filter.enabled=" + filter);
+        mutantService = context.getBean(MutantService.class);
+        dna = DnaMatrices.generate(size, density);
+        mutantService.analyzeDna(dna);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean analyzeDna() {
+        return analyze();
+    }
+
+    /** Con varios hilos, KNOWN mide la cache y la coalescencia; NEW, la contención en las inserciones. */
+    @Benchmark
+    @Threads(4)
+    public boolean analyzeDnaThreads4() {
+        return analyze();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean analyzeDnaThreadsMax() {
+        return analyze();
+    }
+
+    private boolean analyze() {
+        if (scenario == Scenario.KNOWN) {
+            return mutantService.analyzeDna(dna);
+        }
+        return mutantService.analyzeDna(DnaMatrices.variant(dna, variants.incrementAndGet()));
+    }
+}
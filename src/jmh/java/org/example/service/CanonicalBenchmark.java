@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.service.detection.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forma canónica comparando las simetrías de a palabras ({@link PackedDnaMatrix#canonical}) contra
+ * la comparación base por base a través de cada simetría. Con PATTERN las simetrías difieren en
+ * las primeras bases; con UNIFORM (todas A) son iguales y cada comparación recorre la matriz entera.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CanonicalBenchmark {
+
+    @Param({"6", "64", "512"})
+    private int size;
+
+    @Param({"PATTERN", "UNIFORM"})
+    private String shape;
+
+    private PackedDnaMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        String[] dna = DnaMatrices.generate(size, DnaMatrices.Density.FULL_SCAN);
+        if (shape.equals("UNIFORM")) {
+            Arrays.fill(dna, "A".repeat(size));
+        }
+        matrix = PackedDnaMatrix.encode(dna);
+    }
+
+    @Benchmark
+    public PackedDnaMatrix wordLevel() {
+        return matrix.canonical();
+    }
+
+    @Benchmark
+    public PackedDnaMatrix baseByBase() {
+        return naiveCanonical(matrix);
+    }
+
+    /** La versión anterior: cada simetría se lee base por base a través de un switch. */
+    static PackedDnaMatrix naiveCanonical(PackedDnaMatrix matrix) {
+        int best = 0;
+        for (int symmetry = 1; symmetry < PackedDnaMatrix.SYMMETRIES; symmetry++) {
+            if (compareSymmetries(matrix, symmetry, best) < 0) {
+                best = symmetry;
+            }
+        }
+        return best == 0 ? matrix : matrix.transformed(best);
+    }
+
+    private static int compareSymmetries(PackedDnaMatrix matrix, int first, int second) {
+        for (int row = 0; row < matrix.size(); row++) {
+            for (int col = 0; col < matrix.size(); col++) {
+                final int difference = baseUnder(matrix, first, row, col) - baseUnder(matrix, second, row, col);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int baseUnder(PackedDnaMatrix matrix, int symmetry, int row, int col) {
+        final int last = matrix.size() - 1;
+        switch (symmetry) {
+            case 0: return matrix.base(row, col);
+            case 1: return matrix.base(last - col, row);
+            case 2: return matrix.base(last - row, last - col);
+            case 3: return matrix.base(col, last - row);
+            case 4: return matrix.base(col, row);
+            case 5: return matrix.base(last - col, last - row);
+            case 6: return matrix.base(row, last - col);
+            case 7: return matrix.base(last - row, col);
+            default: throw new IllegalArgumentException("Simetría inválida: " + symmetry);
+        }
+    }
+}
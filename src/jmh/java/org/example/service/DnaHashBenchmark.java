@@ -0,0 +1,62 @@
+package org.example.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DnaHashBenchmark {
+
+    @Param({"6", "64", "512", "4096"})
+    private int size;
+
+    @Param({"SHA_256", "MURMUR3_128"})
+    private DnaHashAlgorithm algorithm;
+
+    /** 0 hashea siempre; 11 usa la clave exacta para las matrices chicas. */
+    @Param({"0", "11"})
+    private int exactMaxSize;
+
+    private DnaKeyFactory dnaKeyFactory;
+    private String[] dna;
+
+    @Setup
+    public void setUp() {
+        dnaKeyFactory = new DnaKeyFactory(algorithm, false, exactMaxSize);
+        dna = DnaMatrices.generate(size, DnaMatrices.Density.FULL_SCAN);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DnaKey encodeAndHash() {
+        return dnaKeyFactory.tryEncode(dna).getKey();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DnaKey encodeAndHashThreads4() {
+        return dnaKeyFactory.tryEncode(dna).getKey();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public DnaKey encodeAndHashThreadsMax() {
+        return dnaKeyFactory.tryEncode(dna).getKey();
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service;
+
+/**
+ * Generador de matrices para los benchmarks.
+ */
+public final class DnaMatrices {
+
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    /** Densidad de secuencias de la matriz generada. */
+    public enum Density {
+        /** Dos secuencias horizontales en la primera fila: el detector corta enseguida. */
+        EARLY_EXIT,
+        /** Humano sin ninguna secuencia: el detector recorre la matriz completa. */
+        FULL_SCAN
+    }
+
+    private DnaMatrices() {
+    }
+
+    static String[] generate(int size, Density density) {
+        String[] dna = new String[size];
+        for (int row = 0; row < size; row++) {
+            char[] chars = new char[size];
+            for (int col = 0; col < size; col++) {
+                // (col + 2*row) % 4 nunca repite una base con un vecino en ninguna dirección
+                chars[col] = BASES[(col + 2 * row) % 4];
+            }
+            dna[row] = new String(chars);
+        }
+        if (density == Density.EARLY_EXIT) {
+            dna[0] = "A".repeat(size);
+        }
+        return dna;
+    }
+
+    /**
+     * Devuelve una copia de la matriz cuyas últimas filas codifican {@code variant} en base 4,
+     * para obtener un ADN distinto en cada invocación sin regenerar la matriz entera.
+     */
+    static String[] variant(String[] dna, long variant) {
+        String[] copy = dna.clone();
+        final int n = dna.length;
+        long remaining = variant;
+        for (int row = n - 1; row >= Math.max(0, n - 3) && remaining > 0; row--) {
+            char[] chars = dna[row].toCharArray();
+            for (int col = 0; col < n && remaining > 0; col++) {
+                chars[col] = BASES[(int) (remaining & 3)];
+                remaining >>>= 2;
+            }
+            copy[row] = new String(chars);
+        }
+        return copy;
+    }
+}
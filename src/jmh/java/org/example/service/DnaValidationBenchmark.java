@@ -0,0 +1,73 @@
+package org.example.service;
+
+import org.example.validation.ValidDnaSequenceValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DnaValidationBenchmark {
+
+    @Param({"6", "64", "512", "4096"})
+    private int size;
+
+    private String[] dna;
+
+    @Setup
+    public void setUp() {
+        dna = DnaMatrices.generate(size, DnaMatrices.Density.FULL_SCAN);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean isValidDna() {
+        return ValidDnaSequenceValidator.isValidDna(dna);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isValidDnaThreads4() {
+        return ValidDnaSequenceValidator.isValidDna(dna);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean isValidDnaThreadsMax() {
+        return ValidDnaSequenceValidator.isValidDna(dna);
+    }
+
+    /** Validación, codificación y hash en una sola pasada, como en el request real. */
+    @Benchmark
+    @Threads(1)
+    public EncodedDna validateAndEncode() {
+        return DnaKeyFactory.defaults().tryEncode(dna);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public EncodedDna validateAndEncodeThreads4() {
+        return DnaKeyFactory.defaults().tryEncode(dna);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public EncodedDna validateAndEncodeThreadsMax() {
+        return DnaKeyFactory.defaults().tryEncode(dna);
+    }
+}
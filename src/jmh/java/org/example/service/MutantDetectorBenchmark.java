@@ -0,0 +1,63 @@
+package org.example.service;
+
+import org.example.service.detection.DetectionMode;
+import org.example.service.detection.PackedDnaMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutantDetectorBenchmark {
+
+    @Param({"6", "64", "512", "4096"})
+    private int size;
+
+    @Param({"EARLY_EXIT", "FULL_SCAN"})
+    private DnaMatrices.Density density;
+
+    @Param({"SCALAR", "SWAR", "RUN_LENGTH"})
+    private DetectionMode mode;
+
+    private MutantDetector detector;
+    private PackedDnaMatrix matrix;
+
+    @Setup
+    public void setUp() {
+        detector = new MutantDetector(mode);
+        matrix = PackedDnaMatrix.encode(DnaMatrices.generate(size, density));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean isMutant() {
+        return detector.isMutant(matrix);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isMutantThreads4() {
+        return detector.isMutant(matrix);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean isMutantThreadsMax() {
+        return detector.isMutant(matrix);
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.service;
+
+import com.sun.management.ThreadMXBean;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de veredictos en {@link OffHeapVerdictMap} contra un {@code ConcurrentHashMap<String, Boolean>}
+ * con el SHA-256 en hexadecimal como clave (el formato anterior a las claves binarias), ambos con
+ * {@code entries} claves cargadas. La memoria de cada uno sale como contadores auxiliares
+ * ({@link Footprint}) junto al tiempo por búsqueda; correr con {@code -prof gc} para ver las
+ * asignaciones por búsqueda.
+ *
+ * <pre>
+ *   ./gradlew jmh -PjmhInclude=VerdictMapBenchmark
+ * </pre>
+ * Con 10M de entradas hace falta un heap de unos 4 GB (ver {@code @Fork}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "-XX:MaxDirectMemorySize=2g"})
+public class VerdictMapBenchmark {
+
+    @Param({"10000000"})
+    private int entries;
+
+    /** HIT: claves cargadas. MISS: claves que no están. */
+    @Param({"HIT", "MISS"})
+    private Lookup lookup;
+
+    public enum Lookup { HIT, MISS }
+
+    private static final int PROBES = 1 << 16;
+
+    private OffHeapVerdictMap offHeap;
+    private ConcurrentHashMap<String, Boolean> onHeap;
+    private byte[][] probeKeys;
+    private String[] probeHexKeys;
+    /** Bytes reservados en el heap al cargar el ConcurrentHashMap (claves y nodos). */
+    private long onHeapBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SplittableRandom random = new SplittableRandom(22);
+        byte[] hexBuffer = new byte[2 * DnaHashAlgorithm.SHA_256.getDigestLength()];
+        offHeap = new OffHeapVerdictMap(4, entries, 64);
+        probeKeys = new byte[PROBES][];
+        probeHexKeys = new String[PROBES];
+        onHeap = new ConcurrentHashMap<>(entries);
+        int probes = 0;
+        for (int i = 0; i < entries; i++) {
+            byte[] key = shaKey(random);
+            boolean isMutant = (i & 1) == 0;
+            offHeap.put(key, isMutant);
+            // la tabla está dimensionada y la clave se arma sin intermedios: lo reservado queda en el mapa
+            long before = threads.getCurrentThreadAllocatedBytes();
+            String hexKey = hexKey(key, hexBuffer);
+            onHeap.put(hexKey, isMutant);
+            onHeapBytes += threads.getCurrentThreadAllocatedBytes() - before;
+            if (lookup == Lookup.HIT && i % Math.max(1, entries / PROBES) == 0 && probes < PROBES) {
+                probeKeys[probes] = key;
+                probeHexKeys[probes++] = hexKey;
+            }
+        }
+        for (; probes < PROBES; probes++) {
+            byte[] key = shaKey(random);
+            probeKeys[probes] = key;
+            probeHexKeys[probes] = hexKey(key, hexBuffer);
+        }
+    }
+
+    /** Posición de cada hilo en las claves de prueba. */
+    @State(Scope.Thread)
+    public static class Probe {
+        private int next;
+
+        int next() {
+            return next++ & (PROBES - 1);
+        }
+    }
+
+    /**
+     * Memoria de cada mapa, en MiB, como contadores auxiliares: el heap que reservó la carga del
+     * ConcurrentHashMap y la memoria fuera del heap de la tabla. JMH suma los contadores de todas
+     * las iteraciones y todos los hilos, así que solo los informa el primer hilo en la primera
+     * iteración de medición. Son métodos y no campos porque JMH pone los campos en cero antes de
+     * cada iteración.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        private boolean reported;
+        private long onHeapBytes;
+        private long offHeapBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(VerdictMapBenchmark benchmark, IterationParams iteration, ThreadParams thread) {
+            boolean report = !reported && thread.getThreadIndex() == 0
+                    && iteration.getType() == IterationType.MEASUREMENT;
+            onHeapBytes = report ? benchmark.onHeapBytes : 0;
+            offHeapBytes = report ? benchmark.offHeap.memoryBytes() : 0;
+            reported |= report;
+        }
+
+        public long onHeapMiB() {
+            return onHeapBytes >> 20;
+        }
+
+        public long offHeapMiB() {
+            return offHeapBytes >> 20;
+        }
+    }
+
+    @Benchmark
+    public int offHeapGet(Probe probe, Footprint footprint) {
+        return offHeap.get(probeKeys[probe.next()]);
+    }
+
+    @Benchmark
+    public Boolean concurrentHashMapGet(Probe probe, Footprint footprint) {
+        return onHeap.get(probeHexKeys[probe.next()]);
+    }
+
+    /** Incluye armar la clave hexadecimal, como hacía el servicio antes de las claves binarias. */
+    @Benchmark
+    public Boolean concurrentHashMapGetWithHexKey(Probe probe, Footprint footprint) {
+        byte[] key = probeKeys[probe.next()];
+        return onHeap.get(HexFormat.of().formatHex(key, 1, key.length));
+    }
+
+    private static byte[] shaKey(SplittableRandom random) {
+        byte[] key = new byte[DnaHashAlgorithm.SHA_256.getKeyLength()];
+        random.nextBytes(key);
+        key[0] = DnaHashAlgorithm.SHA_256.getTag();
+        return key;
+    }
+
+    /** Igual que {@code HexFormat.formatHex} sin el tag; solo reserva el String resultante. */
+    private static String hexKey(byte[] key, byte[] buffer) {
+        for (int i = 1; i < key.length; i++) {
+            buffer[2 * (i - 1)] = (byte) Character.forDigit((key[i] >> 4) & 0xF, 16);
+            buffer[2 * (i - 1) + 1] = (byte) Character.forDigit(key[i] & 0xF, 16);
+        }
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.config;
+
+import lombok.Data;
+import org.example.service.DnaHashAlgorithm;
+import org.example.service.detection.DetectionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "mutant")
+public class MutantProperties {
+
+    private final Detector detector = new Detector();
+    private final Hash hash = new Hash();
+    private final Cache cache = new Cache();
+    private final Filter filter = new Filter();
+    private final Coalescing coalescing = new Coalescing();
+    private final Metrics metrics = new Metrics();
+    private final Timing timing = new Timing();
+    private final Persistence persistence = new Persistence();
+    private final Store store = new Store();
+    private final Batch batch = new Batch();
+    private final Stream stream = new Stream();
+
+    @Data
+    public static class Detector {
+        /** Motor de detección: SCALAR (celda a celda), SWAR (palabras empaquetadas) o RUN_LENGTH (una pasada). */
+        private DetectionMode mode = DetectionMode.SCALAR;
+        /** Tamaño N a partir del cual la matriz se procesa por bandas en paralelo (0 = nunca). */
+        private int parallelThreshold = 1000;
+        /** Hilos del ForkJoinPool de detección por bandas. */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Hash {
+        /** Algoritmo de la clave de deduplicación: SHA_256 (compatible) o MURMUR3_128 (huella rápida). */
+        private DnaHashAlgorithm algorithm = DnaHashAlgorithm.SHA_256;
+        /** Con MURMUR3_128, guarda la matriz y la compara en cada acierto para detectar colisiones. */
+        private boolean verify = false;
+        /**
+         * Hasta este N la clave es la matriz empaquetada, sin hash (0 = nunca, máximo 11). Los
+         * registros de esos tamaños guardados con hash dejan de encontrarse al activarlo.
+         */
+        private int exactMaxSize = 0;
+        /** Clave sobre la menor de las ocho simetrías, para que rotaciones y espejos compartan registro. */
+        private boolean canonicalize = false;
+        /** Con canonización, busca también la clave sin canonizar de los registros anteriores. */
+        private boolean legacyLookup = true;
+    }
+
+    @Data
+    public static class Cache {
+        /** Cache de veredictos (hash -> mutante) delante del repositorio. */
+        private boolean enabled = true;
+        /** Cantidad máxima de entradas; acota la memoria bajo carga sostenida. */
+        private long maxEntries = 100_000;
+        /** Tiempo de vida de cada entrada desde que se escribió (solo CAFFEINE). */
+        private Duration ttl = Duration.ofMinutes(10);
+        /** CAFFEINE: en el heap, con desalojo W-TinyLFU y TTL. OFF_HEAP: tabla fuera del heap, sin desalojo. */
+        private Type type = Type.CAFFEINE;
+        /** Segmentos con lock propio de la tabla OFF_HEAP. */
+        private int concurrency = 64;
+
+        public enum Type { CAFFEINE, OFF_HEAP }
+    }
+
+    @Data
+    public static class Filter {
+        /** Filtro de Bloom de las claves guardadas: los ADN seguro nuevos no consultan la base. */
+        private boolean enabled = true;
+        /** Capacidad del primer slice; al llenarse se agrega otro del doble. */
+        private long expectedInsertions = 100_000;
+        /** Tasa de falsos positivos objetivo para el filtro completo, con todos sus slices. */
+        private double falsePositiveRate = 0.01;
+    }
+
+    @Data
+    public static class Coalescing {
+        /** Los requests concurrentes con el mismo ADN esperan el resultado del primero. */
+        private boolean enabled = true;
+        /** Espera máxima por el primero; después el request resuelve el ADN por su cuenta. */
+        private Duration maxWait = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Metrics {
+        /** Timers por fase, tamaños, veredictos y búsquedas; desactivadas no se lee el reloj. */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Timing {
+        /** Header Server-Timing con la duración de cada fase en las respuestas de POST /mutant. */
+        private boolean enabled = false;
+        /** Los requests que tardan más que esto se registran con su desglose por fase (0 = nunca). */
+        private Duration slowThreshold = Duration.ofMillis(500);
+        /** Fracción de los requests lentos que se registran, entre 0 y 1. */
+        private double slowSampleRate = 0.1;
+        /** Tope de registros de requests lentos por segundo, aunque la muestra dé más. */
+        private int slowMaxPerSecond = 10;
+    }
+
+    @Data
+    public static class Persistence {
+        /** SYNC: cada ADN nuevo se inserta dentro del request. ASYNC: write-behind por lotes. */
+        private Durability durability = Durability.SYNC;
+        /** Máximo de registros por lote JDBC en modo ASYNC. */
+        private int batchSize = 100;
+        /** Tiempo máximo que un registro espera en la cola antes de escribirse. */
+        private Duration maxLatency = Duration.ofMillis(50);
+        /** Capacidad de la cola; si se llena, el registro se escribe en el hilo del request. */
+        private int queueCapacity = 10_000;
+        /** Tiempo máximo para vaciar la cola al apagar la aplicación. */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        public enum Durability { SYNC, ASYNC }
+    }
+
+    @Data
+    public static class Store {
+        /** JPA: tabla dna_records. MAPPED: log de solo agregado en un archivo mapeado en memoria. */
+        private Type type = Type.JPA;
+        /** Archivo del log en modo MAPPED; se crea si no existe. */
+        private Path path = Path.of("data", "verdicts.log");
+        /** Tamaño de cada región mapeada del archivo; el log crece de a una región. */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /** Claves que el índice en memoria admite sin crecer. */
+        private long expectedRecords = 100_000;
+        /** Cuándo se fuerza a disco lo escrito: en cada escritura, agrupado entre escrituras concurrentes o periódicamente. */
+        private Fsync fsync = Fsync.GROUP;
+        /** Período del fsync en modo PERIODIC; es lo máximo que se pierde si se cae el sistema. */
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+
+        public enum Type { JPA, MAPPED }
+
+        public enum Fsync { EVERY_WRITE, GROUP, PERIODIC }
+    }
+
+    @Data
+    public static class Batch {
+        /** Hilos del ForkJoinPool que detecta en paralelo los ADN desconocidos de un lote. */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Stream {
+        /** Líneas NDJSON que se leen, analizan y responden juntas; acota el trabajo en vuelo. */
+        private int chunkSize = 256;
+        /** N máximo de una línea; una línea más larga de lo que ocupa esa matriz se rechaza sin leerla entera. */
+        private int maxSize = 1000;
+    }
+}
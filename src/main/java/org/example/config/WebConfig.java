@@ -0,0 +1,21 @@
+package org.example.config;
+
+import lombok.RequiredArgsConstructor;
+import org.example.controller.ServerTimingInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ServerTimingInterceptor serverTimingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (serverTimingInterceptor.isEnabled()) {
+            registry.addInterceptor(serverTimingInterceptor).addPathPatterns("/mutant");
+        }
+    }
+}
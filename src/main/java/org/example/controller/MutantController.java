@@ -2,17 +2,29 @@ package org.example.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.CacheStatsResponse;
+import org.example.dto.DnaBatchRequest;
+import org.example.dto.DnaBatchResponse;
 import org.example.dto.DnaRequest;
+import org.example.dto.FilterStatsResponse;
 import org.example.dto.HealthResponse;
 import org.example.dto.StatsResponse;
+import org.example.service.MutantBatchService;
 import org.example.service.MutantService;
+import org.example.service.MutantStreamService;
+import org.example.service.PackedDnaFormat;
+import org.example.service.RequestTimings;
 import org.example.service.StatsService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 
 @RestController
@@ -22,6 +34,8 @@ public class MutantController {
 
     private final MutantService mutantService;
     private final StatsService statsService;
+    private final MutantBatchService mutantBatchService;
+    private final MutantStreamService mutantStreamService;
     @Operation(summary = "Analiza una secuencia de ADN",
             description = "Determina si la secuencia de ADN proporcionada corresponde a un mutante o a un humano.",
             responses = {
@@ -31,18 +45,87 @@ public class MutantController {
             })
     @PostMapping("/mutant")
     public ResponseEntity<Void> checkMutant(@Valid @RequestBody DnaRequest request) {
-        boolean isMutant = mutantService.analyzeDna(request.getDna());
+        boolean isMutant = mutantService.analyzeDna(request.getEncoded());
         if (isMutant) {
-            return ResponseEntity.ok().build(); // 200 OK
+            return withTiming(ResponseEntity.ok()).build(); // 200 OK
         } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // 403 Forbidden
+            return withTiming(ResponseEntity.status(HttpStatus.FORBIDDEN)).build(); // 403 Forbidden
         }
     }
 
+    @Operation(summary = "Analiza una secuencia de ADN en formato binario",
+            description = "Igual que el JSON, con la matriz empaquetada a 2 bits por base: N como entero big-endian de 4 bytes y N filas de (N + 3) / 4 bytes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Mutante detectado (OK)"),
+                    @ApiResponse(responseCode = "403", description = "Humano detectado (Forbidden)"),
+                    @ApiResponse(responseCode = "400", description = "Trama o secuencia inválida (Bad Request)")
+            })
+    @PostMapping(value = "/mutant", consumes = PackedDnaFormat.MEDIA_TYPE)
+    public ResponseEntity<Void> checkMutantPacked(InputStream body) throws IOException {
+        boolean isMutant = mutantService.analyzePacked(body);
+        if (isMutant) {
+            return withTiming(ResponseEntity.ok()).build(); // 200 OK
+        } else {
+            return withTiming(ResponseEntity.status(HttpStatus.FORBIDDEN)).build(); // 403 Forbidden
+        }
+    }
+
+    /** Agrega {@code Server-Timing} si {@link ServerTimingInterceptor} está midiendo este request. */
+    private static ResponseEntity.BodyBuilder withTiming(ResponseEntity.BodyBuilder response) {
+        RequestTimings timings = RequestTimings.current();
+        return timings == null ? response : response.header(RequestTimings.HEADER, timings.toServerTiming());
+    }
+
+    @Operation(summary = "Analiza un lote de secuencias de ADN",
+            description = "Devuelve un veredicto por matriz en el orden de entrada. Las matrices inválidas se informan por índice sin hacer fallar el lote.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Lote procesado"),
+                    @ApiResponse(responseCode = "400", description = "Lote vacío o demasiado grande (Bad Request)")
+            })
+    @PostMapping("/mutant/batch")
+    public ResponseEntity<DnaBatchResponse> checkMutantBatch(@Valid @RequestBody DnaBatchRequest request) {
+        return ResponseEntity.ok(new DnaBatchResponse(mutantBatchService.analyzeBatch(request.getDnas())));
+    }
+
+    @Operation(summary = "Analiza un lote de secuencias de ADN en formato binario",
+            description = "Cantidad de matrices como entero big-endian de 4 bytes seguida de cada matriz en el formato binario de /mutant. Responde el mismo JSON que el lote JSON.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Lote procesado"),
+                    @ApiResponse(responseCode = "400", description = "Trama inválida, lote vacío o demasiado grande (Bad Request)")
+            })
+    @PostMapping(value = "/mutant/batch", consumes = PackedDnaFormat.MEDIA_TYPE)
+    public ResponseEntity<DnaBatchResponse> checkMutantBatchPacked(InputStream body) throws IOException {
+        return ResponseEntity.ok(new DnaBatchResponse(mutantBatchService.analyzePackedBatch(body)));
+    }
+
+    @Operation(summary = "Analiza un flujo NDJSON de secuencias de ADN",
+            description = "Recibe una línea {\"dna\":[...]} por matriz y responde una línea de resultado por cada una a medida que se calcula, con memoria constante.")
+    @PostMapping(value = "/mutant/stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void checkMutantStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        mutantStreamService.analyzeStream(body, response.getOutputStream());
+    }
+
     @GetMapping("/stats")
     public ResponseEntity<StatsResponse> getStats() {
         return ResponseEntity.ok(statsService.getStats());
     }
+
+    @Operation(summary = "Estadísticas de la cache de veredictos",
+            description = "Entradas, aciertos, fallos y desalojos de la cache en memoria delante de la base de datos.")
+    @GetMapping("/stats/cache")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(statsService.getCacheStats());
+    }
+
+    @Operation(summary = "Estadísticas del filtro de claves",
+            description = "Claves, slices, memoria y tasa de falsos positivos estimada del filtro de Bloom que evita consultar la base de datos con ADN nuevos.")
+    @GetMapping("/stats/filter")
+    public ResponseEntity<FilterStatsResponse> getFilterStats() {
+        return ResponseEntity.ok(statsService.getFilterStats());
+    }
     @PostMapping("/health")
     public ResponseEntity<HealthResponse> healthCheck() {
         return ResponseEntity.ok(new HealthResponse("UP", LocalDateTime.now()));
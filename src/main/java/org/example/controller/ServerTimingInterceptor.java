@@ -0,0 +1,92 @@
+package org.example.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.service.RequestTimings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Abre una medición de {@link RequestTimings} antes de resolver los argumentos del handler (así
+ * la validación y la codificación del ADN quedan medidas) y la cierra al terminar el request. El
+ * controller la usa para el header {@code Server-Timing}; acá se registran los requests que
+ * superan {@code mutant.timing.slow-threshold}, muestreados y con un tope por segundo, con el
+ * tamaño de la matriz y el desglose por fase, nunca el ADN.
+ */
+@Slf4j
+@Component
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    private final int slowMaxPerSecond;
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+
+    @Autowired
+    public ServerTimingInterceptor(ObjectProvider<MutantProperties> properties) {
+        this(properties.getIfAvailable(MutantProperties::new).getTiming());
+    }
+
+    ServerTimingInterceptor(MutantProperties.Timing config) {
+        this.enabled = config.isEnabled();
+        this.slowThresholdNanos = config.getSlowThreshold().toNanos();
+        this.slowSampleRate = config.getSlowSampleRate();
+        this.slowMaxPerSecond = config.getSlowMaxPerSecond();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimings.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return;
+        }
+        try {
+            long total = timings.elapsedNanos();
+            if (isSlow(total) && sampled()) {
+                log.warn("Request lento: method={} path={} status={} total_ms={} {}", request.getMethod(),
+                        request.getRequestURI(), response.getStatus(), String.format("%.3f", total / 1_000_000.0),
+                        timings.toLogFields());
+            }
+        } finally {
+            RequestTimings.end();
+        }
+    }
+
+    boolean isSlow(long totalNanos) {
+        return slowThresholdNanos > 0 && totalNanos >= slowThresholdNanos;
+    }
+
+    /** Muestra aleatoria de los requests lentos, con a lo sumo {@code slowMaxPerSecond} por segundo. */
+    boolean sampled() {
+        if (slowSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= slowSampleRate) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= slowMaxPerSecond;
+    }
+}
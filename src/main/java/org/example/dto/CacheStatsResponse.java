@@ -0,0 +1,27 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheStatsResponse {
+    @JsonProperty("enabled")
+    private boolean enabled;
+
+    @JsonProperty("size")
+    private long size;
+
+    @JsonProperty("hit_count")
+    private long hitCount;
+
+    @JsonProperty("miss_count")
+    private long missCount;
+
+    @JsonProperty("eviction_count")
+    private long evictionCount;
+
+    @JsonProperty("coalesced_requests")
+    private long coalescedRequests;
+}
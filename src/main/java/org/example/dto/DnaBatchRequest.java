@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DnaBatchRequest {
+    public static final int MAX_ITEMS = 1000;
+
+    // Cada matriz se valida por separado: las inválidas se informan por índice en la respuesta
+    @NotNull
+    @NotEmpty
+    @Size(max = MAX_ITEMS, message = "El lote admite como máximo " + MAX_ITEMS + " secuencias")
+    @JsonProperty("dnas")
+    private List<String[]> dnas;
+}
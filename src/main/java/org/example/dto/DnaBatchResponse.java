@@ -0,0 +1,14 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DnaBatchResponse {
+    @JsonProperty("results")
+    private List<DnaBatchResult> results;
+}
@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DnaBatchResult {
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("mutant")
+    private Boolean mutant;
+
+    @JsonProperty("error")
+    private String error;
+
+    public static DnaBatchResult verdict(int index, boolean mutant) {
+        return new DnaBatchResult(index, mutant, null);
+    }
+
+    public static DnaBatchResult invalid(int index, String error) {
+        return new DnaBatchResult(index, null, error);
+    }
+}
@@ -1,18 +1,29 @@
 package org.example.dto;
 
-import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.service.EncodedDna;
 import org.example.validation.ValidDnaSequence;
 
+/**
+ * Body de {@code POST /mutant}. Al leerlo de JSON, {@link DnaRequestDeserializer} codifica las filas
+ * directamente en {@link #encoded} y {@link #dna} queda en null; construido en código lleva las filas
+ * y las codifica la validación. La validación a nivel de clase rechaza un ADN ausente o vacío.
+ */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
+@ValidDnaSequence
+@JsonDeserialize(using = DnaRequestDeserializer.class)
 public class DnaRequest {
-    @NotNull
-    @NotEmpty
-    @ValidDnaSequence
     private String[] dna;
-}
\ No newline at end of file
+
+    /** Matriz codificada y hash calculados al leer o al validar el request; null hasta entonces. */
+    @JsonIgnore
+    private EncodedDna encoded;
+
+    public DnaRequest(String[] dna) {
+        this.dna = dna;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.example.exception.InvalidDnaSequenceException;
+import org.example.service.DnaKeyFactory;
+import org.example.service.EncodedDna;
+import org.example.service.PipelineMetrics;
+import org.example.service.PipelinePhase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+
+/**
+ * Lee {@link DnaRequest} del flujo de tokens y codifica {@code dna} directamente en la matriz
+ * empaquetada, sin armar un {@code String} por fila: cada fila se toma del buffer del parser, se
+ * valida y se codifica antes de leer la siguiente. N es el largo de la primera fila. La primera
+ * fila inválida (largo distinto de N, una base fuera de ATCG, filas de más) corta la lectura sin
+ * consumir el resto del body, con {@link InvalidDnaSequenceException}.
+ *
+ * <p>Un {@code dna} ausente o {@code null} deja el request sin codificar y lo rechaza la
+ * validación, igual que antes. Las demás propiedades se ignoran.
+ */
+public class DnaRequestDeserializer extends StdDeserializer<DnaRequest> {
+
+    private static final String DNA_FIELD = "dna";
+    private static final String INVALID_MESSAGE = "Secuencia de ADN inválida";
+
+    private final DnaKeyFactory dnaKeyFactory;
+    private final PipelineMetrics metrics;
+
+    /** Fuera de Spring se usa la configuración por defecto, sin métricas. */
+    public DnaRequestDeserializer() {
+        super(DnaRequest.class);
+        this.dnaKeyFactory = DnaKeyFactory.defaults();
+        this.metrics = PipelineMetrics.disabled();
+    }
+
+    @Autowired
+    public DnaRequestDeserializer(ObjectProvider<DnaKeyFactory> dnaKeyFactory, ObjectProvider<PipelineMetrics> metrics) {
+        super(DnaRequest.class);
+        this.dnaKeyFactory = dnaKeyFactory.getIfAvailable(DnaKeyFactory::defaults);
+        this.metrics = metrics.getIfAvailable(PipelineMetrics::disabled);
+    }
+
+    @Override
+    public DnaRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        DnaRequest request = new DnaRequest();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (DNA_FIELD.equals(field)) {
+                request.setEncoded(readDna(parser, context));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return (DnaRequest) context.handleUnexpectedToken(DnaRequest.class, parser);
+        }
+        return request;
+    }
+
+    /** Codifica el arreglo de filas en el que está parado el parser; null si es {@code null}. */
+    private EncodedDna readDna(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_NULL)) {
+            return null;
+        }
+        if (!parser.isExpectedStartArrayToken()) {
+            context.reportWrongTokenException(this, JsonToken.START_ARRAY, "'dna' debe ser un arreglo de filas");
+            return null;  // reportWrongTokenException siempre lanza
+        }
+        long start = metrics.start();
+        DnaKeyFactory.RowEncoder encoder = null;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token != JsonToken.VALUE_STRING) {
+                throw new InvalidDnaSequenceException(parser, INVALID_MESSAGE);
+            }
+            if (encoder == null) {
+                encoder = dnaKeyFactory.rowEncoder(parser.getTextLength());
+            }
+            if (!encoder.addRow(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                throw new InvalidDnaSequenceException(parser, INVALID_MESSAGE);
+            }
+        }
+        EncodedDna encoded = encoder == null ? null : encoder.finish();
+        metrics.record(PipelinePhase.ENCODE, start);
+        if (encoded == null) {
+            throw new InvalidDnaSequenceException(parser, INVALID_MESSAGE);
+        }
+        return encoded;
+    }
+}
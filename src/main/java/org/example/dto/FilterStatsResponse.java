@@ -0,0 +1,36 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FilterStatsResponse {
+    @JsonProperty("enabled")
+    private boolean enabled;
+
+    @JsonProperty("ready")
+    private boolean ready;
+
+    @JsonProperty("elements")
+    private long elements;
+
+    @JsonProperty("capacity")
+    private long capacity;
+
+    @JsonProperty("slices")
+    private int slices;
+
+    @JsonProperty("memory_bytes")
+    private long memoryBytes;
+
+    @JsonProperty("target_false_positive_rate")
+    private double targetFalsePositiveRate;
+
+    @JsonProperty("estimated_false_positive_rate")
+    private double estimatedFalsePositiveRate;
+
+    @JsonProperty("skipped_lookups")
+    private long skippedLookups;
+}
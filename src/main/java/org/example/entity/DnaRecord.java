@@ -12,12 +12,21 @@ import java.time.LocalDateTime;
 @Getter @Setter @NoArgsConstructor
 public class DnaRecord {
 
+    /** Tag del algoritmo más el digest más largo (SHA-256). */
+    public static final int DNA_HASH_LENGTH = 33;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "dna_hash", unique = true, nullable = false)
-    private String dnaHash;
+    /** Clave de deduplicación: tag del algoritmo + digest, VARBINARY(33). */
+    @Column(name = "dna_hash", unique = true, nullable = false, length = DNA_HASH_LENGTH)
+    private byte[] dnaHash;
+
+    /** Matriz serializada, solo con huellas no criptográficas en modo verificación. */
+    @Lob
+    @Column(name = "dna_packed")
+    private byte[] dnaPacked;
 
     @Column(name = "is_mutant", nullable = false)
     private boolean isMutant;
@@ -26,7 +35,7 @@ public class DnaRecord {
     private LocalDateTime createdAt = LocalDateTime.now();
 
     // Constructor conveniente
-    public DnaRecord(String dnaHash, boolean isMutant) {
+    public DnaRecord(byte[] dnaHash, boolean isMutant) {
         this.dnaHash = dnaHash;
         this.isMutant = isMutant;
     }
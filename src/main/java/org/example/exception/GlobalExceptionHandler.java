@@ -1,8 +1,10 @@
 package org.example.exception;
 
 import org.example.dto.ErrorResponse;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -21,6 +23,25 @@ public class GlobalExceptionHandler {
         ErrorResponse error = new ErrorResponse("Bad Request", message);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleUnreadableBody(
+            HttpMessageNotReadableException ex) {
+
+        // ADN rechazado al leer el body: mismo mensaje que la validación. El resto (JSON mal
+        // formado, body vacío) sigue con la respuesta por defecto de Spring
+        if (!(ex.getMostSpecificCause() instanceof InvalidDnaSequenceException invalid)) {
+            throw ex;
+        }
+        ErrorResponse error = new ErrorResponse("Bad Request", invalid.getOriginalMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    @ExceptionHandler(InvalidPackedDnaException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPackedDna(
+            InvalidPackedDnaException ex) {
+
+        ErrorResponse error = new ErrorResponse("Bad Request", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
     @ExceptionHandler(DnaHashCalculationException.class)
     public ResponseEntity<ErrorResponse> handleDnaHashError(
             DnaHashCalculationException ex) {
@@ -31,4 +52,15 @@ public class GlobalExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(
+            DataIntegrityViolationException ex) {
+
+        // Los duplicados de dna_hash se resuelven en el servicio; si alguno llega acá, reintentar es seguro
+        ErrorResponse error = new ErrorResponse(
+                "Conflict",
+                "El ADN se está registrando en paralelo por otro request. Reintente la operación."
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package org.example.exception;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * ADN rechazado mientras se lee el body del request: Spring lo recibe dentro de un
+ * {@code HttpMessageNotReadableException} y {@link GlobalExceptionHandler} responde con el mismo
+ * mensaje que la validación.
+ */
+public class InvalidDnaSequenceException extends JsonMappingException {
+    public InvalidDnaSequenceException(JsonParser parser, String message) {
+        super(parser, message, parser.currentLocation());
+    }
+}
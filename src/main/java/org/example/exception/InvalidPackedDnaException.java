@@ -0,0 +1,8 @@
+package org.example.exception;
+
+/** Trama de ADN empaquetado ({@code application/x-dna-packed}) que no se puede leer o con un ADN inválido. */
+public class InvalidPackedDnaException extends RuntimeException {
+    public InvalidPackedDnaException(String message) {
+        super(message);
+    }
+}
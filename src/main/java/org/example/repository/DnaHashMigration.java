@@ -0,0 +1,125 @@
+package org.example.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.service.DnaHashAlgorithm;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Migra al arrancar las tablas con claves en un formato anterior al actual (tag del algoritmo +
+ * digest en VARBINARY(33)): el SHA-256 como VARCHAR hexadecimal de 64 caracteres o como
+ * BINARY(32) sin tag. Corre después de que Hibernate actualizó el esquema
+ * ({@code ddl-auto=update} no cambia el tipo de una columna existente) y no hace nada si la columna
+ * ya tiene el formato actual.
+ *
+ * <p>El DDL de H2 confirma cada sentencia por separado, así que una migración cortada a la mitad no
+ * se deshace: la siguiente ejecución descarta la columna {@code dna_hash_new} a medio llenar y
+ * vuelve a empezar, o solo la renombra si {@code dna_hash} ya se había borrado.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class DnaHashMigration {
+
+    private static final String COLUMN_TYPE_SQL = "SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS "
+            + "WHERE UPPER(TABLE_NAME) = 'DNA_RECORDS' AND UPPER(COLUMN_NAME) = ?";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DnaHashMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String hashType = columnType("DNA_HASH");
+        boolean leftover = columnType("DNA_HASH_NEW") != null;
+        if (hashType == null && leftover) {
+            // La ejecución anterior se cortó entre el DROP y el RENAME: dna_hash_new ya está completa
+            log.warn("Migración de dna_hash interrumpida antes de renombrar dna_hash_new, se completa");
+            renameNewColumn();
+            return;
+        }
+        if (hashType == null) {
+            return;
+        }
+        final String type = hashType.toUpperCase();
+        if (!type.contains("CHAR") && !type.equals("BINARY")) {
+            return;
+        }
+        if (leftover) {
+            log.warn("Se descarta dna_hash_new de una migración interrumpida");
+            jdbcTemplate.execute("ALTER TABLE dna_records DROP CONSTRAINT IF EXISTS uk_dna_records_dna_hash");
+            jdbcTemplate.execute("ALTER TABLE dna_records DROP COLUMN dna_hash_new");
+        }
+        if (type.contains("CHAR")) {
+            migrate("hexadecimal", rs -> HexFormat.of().parseHex(rs.getString(2)));
+        } else if (type.equals("BINARY")) {
+            migrate("BINARY(32)", rs -> rs.getBytes(2));
+        }
+    }
+
+    private void migrate(String format, LegacyHashReader reader) {
+        log.info("Migrando dna_records.dna_hash de {} a tag + digest", format);
+        jdbcTemplate.execute("ALTER TABLE dna_records ADD COLUMN dna_hash_new VARBINARY(33)");
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] migrated = {0};
+        jdbcTemplate.query("SELECT id, dna_hash FROM dna_records", rs -> {
+            batch.add(new Object[]{tagged(reader.read(rs)), rs.getLong(1)});
+            if (batch.size() == BATCH_SIZE) {
+                migrated[0] += flush(batch);
+            }
+        });
+        migrated[0] += flush(batch);
+
+        // La columna nueva queda completa antes de borrar la vieja: después solo falta renombrarla
+        jdbcTemplate.execute("ALTER TABLE dna_records ALTER COLUMN dna_hash_new SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE dna_records ADD CONSTRAINT uk_dna_records_dna_hash UNIQUE (dna_hash_new)");
+        jdbcTemplate.execute("ALTER TABLE dna_records DROP COLUMN dna_hash");
+        renameNewColumn();
+        log.info("Migración de dna_hash completa: {} registros", migrated[0]);
+    }
+
+    /** Tipo de la columna de dna_records o {@code null} si no existe. */
+    private String columnType(String column) {
+        List<String> types = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+
+    private void renameNewColumn() {
+        jdbcTemplate.execute("ALTER TABLE dna_records ALTER COLUMN dna_hash_new RENAME TO dna_hash");
+    }
+
+    /** Las claves anteriores son siempre SHA-256. */
+    private static byte[] tagged(byte[] sha256) {
+        byte[] key = new byte[1 + sha256.length];
+        key[0] = DnaHashAlgorithm.SHA_256.getTag();
+        System.arraycopy(sha256, 0, key, 1, sha256.length);
+        return key;
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE dna_records SET dna_hash_new = ? WHERE id = ?", batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    @FunctionalInterface
+    private interface LegacyHashReader {
+        byte[] read(ResultSet rs) throws SQLException;
+    }
+}
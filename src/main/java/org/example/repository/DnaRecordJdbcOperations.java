@@ -0,0 +1,14 @@
+package org.example.repository;
+
+import org.example.entity.DnaRecord;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/** Operaciones de {@link DnaRecordRepository} que se hacen con JDBC en lugar de JPA. */
+public interface DnaRecordJdbcOperations {
+
+    void insertAll(List<DnaRecord> records);
+
+    void forEachKey(Consumer<byte[]> action);
+}
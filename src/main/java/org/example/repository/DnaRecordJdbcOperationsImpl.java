@@ -0,0 +1,42 @@
+package org.example.repository;
+
+import org.example.entity.DnaRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Los lotes se insertan con JdbcTemplate porque Hibernate desactiva el batching de inserts con
+ * {@code GenerationType.IDENTITY}; las claves se recorren sin materializar entidades.
+ */
+class DnaRecordJdbcOperationsImpl implements DnaRecordJdbcOperations {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dna_records (dna_hash, dna_packed, is_mutant, created_at) VALUES (?, ?, ?, ?)";
+    private static final String KEYS_SQL = "SELECT dna_hash FROM dna_records";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    DnaRecordJdbcOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<DnaRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setBytes(1, record.getDnaHash());
+            ps.setBytes(2, record.getDnaPacked());
+            ps.setBoolean(3, record.isMutant());
+            ps.setTimestamp(4, Timestamp.valueOf(record.getCreatedAt()));
+        });
+    }
+
+    @Override
+    public void forEachKey(Consumer<byte[]> action) {
+        jdbcTemplate.query(KEYS_SQL, rs -> {
+            action.accept(rs.getBytes(1));
+        });
+    }
+}
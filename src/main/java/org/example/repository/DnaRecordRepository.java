@@ -2,11 +2,47 @@ package org.example.repository;
 
 import org.example.entity.DnaRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/** {@link VerdictStore} de {@code mutant.store.type=JPA}, sobre la tabla {@code dna_records}. */
 @Repository
-public interface DnaRecordRepository extends JpaRepository<DnaRecord, Long> {
-    Optional<DnaRecord> findByDnaHash(String dnaHash);
+public interface DnaRecordRepository extends JpaRepository<DnaRecord, Long>, VerdictStore, DnaRecordJdbcOperations {
+    @Override
+    Optional<DnaRecord> findByDnaHash(byte[] dnaHash);
+    @Override
+    List<DnaRecord> findByDnaHashIn(Collection<byte[]> dnaHashes);
+    @Override
     long countByIsMutant(boolean isMutant);
+
+    @Override
+    @Query("select r.dnaHash from DnaRecord r where r.dnaHash in :hashes")
+    List<byte[]> findExistingHashes(@Param("hashes") Collection<byte[]> hashes);
+
+    /**
+     * Inserta el registro solo si la clave no existe, en una única sentencia. Devuelve 1 si lo
+     * insertó y 0 si ya estaba; dos inserciones concurrentes de la misma clave pueden igualmente
+     * terminar en una violación de la restricción única, que el llamador debe tratar como "ya estaba".
+     */
+    @Override
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            MERGE INTO dna_records t
+            USING (VALUES (CAST(:dnaHash AS VARBINARY(33)))) s(dna_hash)
+            ON t.dna_hash = s.dna_hash
+            WHEN NOT MATCHED THEN
+                INSERT (dna_hash, dna_packed, is_mutant, created_at)
+                VALUES (s.dna_hash, :dnaPacked, :isMutant, :createdAt)
+            """)
+    int insertIfAbsent(@Param("dnaHash") byte[] dnaHash, @Param("dnaPacked") byte[] dnaPacked,
+                       @Param("isMutant") boolean isMutant, @Param("createdAt") LocalDateTime createdAt);
 }
\ No newline at end of file
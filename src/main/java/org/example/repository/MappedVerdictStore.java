@@ -0,0 +1,417 @@
+package org.example.repository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.entity.DnaRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link VerdictStore} de {@code mutant.store.type=MAPPED}: un log de solo agregado de registros de
+ * 48 bytes (clave, veredicto, fecha y CRC32C) en un archivo mapeado en memoria por regiones, más un
+ * {@link OffHeapKeyIndex} que se reconstruye recorriendo el log al arrancar. Los datos sobreviven a
+ * un reinicio, a diferencia del H2 en memoria, y no hay entidades ni SQL en el camino del request.
+ *
+ * <p>Formato de cada registro (el slot 0 es el encabezado del archivo):
+ * <pre>
+ *   0      largo de la clave (0 = fin del log)
+ *   1..33  clave, completada con ceros
+ *   34     flags (bit 0 = mutante)
+ *   36..43 fecha de creación, epoch en milisegundos
+ *   44..47 CRC32C de los bytes 0..43
+ * </pre>
+ * Un registro con CRC inválido solo puede ser el último, escrito a medias antes de una caída: se
+ * descarta al arrancar y el siguiente registro lo sobrescribe.
+ *
+ * <p>Las escrituras se serializan con un lock; las lecturas no toman lock. El fsync depende de
+ * {@code mutant.store.fsync}: {@code EVERY_WRITE} fuerza cada registro antes de responder,
+ * {@code GROUP} hace lo mismo pero un solo fsync cubre a todos los que escribieron mientras otro
+ * forzaba, y {@code PERIODIC} fuerza cada {@code fsync-interval} sin bloquear el request.
+ *
+ * <p>No guarda la matriz empaquetada, así que no es compatible con {@code mutant.hash.verify}.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "mutant.store.type", havingValue = "MAPPED")
+public class MappedVerdictStore implements VerdictStore {
+
+    static final int RECORD_BYTES = 48;
+    private static final int MAGIC = 0x444e_4156;  // "DNAV"
+    private static final int VERSION = 1;
+
+    private static final int KEY_LENGTH = 0;
+    private static final int KEY = 1;
+    private static final int FLAGS = 34;
+    private static final int CREATED_AT = 36;
+    private static final int CRC = 44;
+    private static final byte MUTANT_FLAG = 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final long segmentBytes;
+    private final long recordsPerSegment;
+    private final MutantProperties.Store.Fsync fsync;
+    private final OffHeapKeyIndex index;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object forceLock = new Object();
+    private final byte[] scratch = new byte[RECORD_BYTES];
+    private final CRC32C crc = new CRC32C();
+    private final ScheduledExecutorService periodicFsync;
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private volatile long records;
+    private volatile long mutants;
+    private volatile long humans;
+    /** Registros ya forzados a disco; solo bajo {@code forceLock}. */
+    private long durable;
+
+    public MappedVerdictStore(MutantProperties properties) throws IOException {
+        this(properties.getStore());
+        if (properties.getHash().isVerify()) {
+            close();
+            throw new IllegalStateException("mutant.store.type=MAPPED no guarda la matriz empaquetada: "
+                    + "no es compatible con mutant.hash.verify=true");
+        }
+    }
+
+    public MappedVerdictStore(MutantProperties.Store config) throws IOException {
+        this.path = config.getPath();
+        this.fsync = config.getFsync();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.fileLock = channel.tryLock();
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("El log de veredictos " + path + " está abierto por otro proceso");
+        }
+        this.segmentBytes = readOrWriteHeader(Math.max(RECORD_BYTES,
+                config.getSegmentSize().toBytes() / RECORD_BYTES * RECORD_BYTES));
+        this.recordsPerSegment = segmentBytes / RECORD_BYTES;
+        this.index = new OffHeapKeyIndex(config.getExpectedRecords());
+        recover();
+        this.durable = records;
+        if (fsync == MutantProperties.Store.Fsync.PERIODIC) {
+            this.periodicFsync = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "verdict-store-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = config.getFsyncInterval().toMillis();
+            periodicFsync.scheduleWithFixedDelay(this::forceAll, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.periodicFsync = null;
+        }
+        log.info("Log de veredictos {}: {} registros, regiones de {} MiB, fsync {}, índice de {} KiB",
+                path, records, segmentBytes >> 20, fsync, index.memoryBytes() / 1024);
+    }
+
+    @Override
+    public Optional<DnaRecord> findByDnaHash(byte[] dnaHash) {
+        long record = find(dnaHash);
+        return record < 0 ? Optional.empty() : Optional.of(toEntity(record));
+    }
+
+    @Override
+    public List<DnaRecord> findByDnaHashIn(Collection<byte[]> dnaHashes) {
+        List<DnaRecord> found = new ArrayList<>();
+        for (byte[] dnaHash : dnaHashes) {
+            long record = find(dnaHash);
+            if (record >= 0) {
+                found.add(toEntity(record));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<byte[]> findExistingHashes(Collection<byte[]> hashes) {
+        List<byte[]> existing = new ArrayList<>();
+        for (byte[] hash : hashes) {
+            if (find(hash) >= 0) {
+                existing.add(hash);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public long countByIsMutant(boolean isMutant) {
+        return isMutant ? mutants : humans;
+    }
+
+    @Override
+    public long count() {
+        return records;
+    }
+
+    @Override
+    public int insertIfAbsent(byte[] dnaHash, byte[] dnaPacked, boolean isMutant, LocalDateTime createdAt) {
+        long appended;
+        appendLock.lock();
+        try {
+            if (find(dnaHash) >= 0) {
+                return 0;
+            }
+            appended = append(dnaHash, isMutant, createdAt);
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(appended);
+        return 1;
+    }
+
+    @Override
+    public void insertAll(List<DnaRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long appended;
+        appendLock.lock();
+        try {
+            for (DnaRecord record : records) {
+                if (find(record.getDnaHash()) >= 0) {
+                    throw new DataIntegrityViolationException("Clave ya registrada en el log de veredictos");
+                }
+            }
+            appended = -1;
+            for (DnaRecord record : records) {
+                appended = append(record.getDnaHash(), record.isMutant(), record.getCreatedAt());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(appended);
+    }
+
+    @Override
+    public void forEachKey(Consumer<byte[]> action) {
+        final long count = records;
+        for (long record = 0; record < count; record++) {
+            MappedByteBuffer segment = segment(record);
+            int offset = offset(record);
+            byte[] key = new byte[segment.get(offset + KEY_LENGTH)];
+            segment.get(offset + KEY, key);
+            action.accept(key);
+        }
+    }
+
+    long indexMemoryBytes() {
+        return index.memoryBytes();
+    }
+
+    /** Número del registro con esta clave, o -1. */
+    private long find(byte[] dnaHash) {
+        return index.find(OffHeapKeyIndex.fingerprint(dnaHash, 0, dnaHash.length), record -> keyEquals(record, dnaHash));
+    }
+
+    private boolean keyEquals(long record, byte[] dnaHash) {
+        MappedByteBuffer segment = segment(record);
+        int offset = offset(record);
+        if (segment.get(offset + KEY_LENGTH) != dnaHash.length) {
+            return false;
+        }
+        for (int i = 0; i < dnaHash.length; i++) {
+            if (segment.get(offset + KEY + i) != dnaHash[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private DnaRecord toEntity(long record) {
+        MappedByteBuffer segment = segment(record);
+        int offset = offset(record);
+        byte[] key = new byte[segment.get(offset + KEY_LENGTH)];
+        segment.get(offset + KEY, key);
+        DnaRecord entity = new DnaRecord(key, (segment.get(offset + FLAGS) & MUTANT_FLAG) != 0);
+        entity.setId(record + 1);
+        entity.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(segment.getLong(offset + CREATED_AT)),
+                ZoneId.systemDefault()));
+        return entity;
+    }
+
+    /** Escribe el registro, lo publica en el índice y devuelve su número. Solo con {@code appendLock}. */
+    private long append(byte[] dnaHash, boolean isMutant, LocalDateTime createdAt) {
+        if (dnaHash.length == 0 || dnaHash.length > DnaRecord.DNA_HASH_LENGTH) {
+            throw new IllegalArgumentException("Clave de " + dnaHash.length + " bytes");
+        }
+        final long record = records;
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+        Arrays.fill(scratch, (byte) 0);
+        scratch[KEY_LENGTH] = (byte) dnaHash.length;
+        System.arraycopy(dnaHash, 0, scratch, KEY, dnaHash.length);
+        scratch[FLAGS] = isMutant ? MUTANT_FLAG : 0;
+        long millis = created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (int i = 0; i < Long.BYTES; i++) {
+            scratch[CREATED_AT + i] = (byte) (millis >>> (8 * (Long.BYTES - 1 - i)));  // big-endian, como getLong
+        }
+        crc.reset();
+        crc.update(scratch, 0, CRC);
+        int checksum = (int) crc.getValue();
+        for (int i = 0; i < Integer.BYTES; i++) {
+            scratch[CRC + i] = (byte) (checksum >>> (8 * (Integer.BYTES - 1 - i)));
+        }
+        ensureMapped(record);
+        segment(record).put(offset(record), scratch);
+        index.put(OffHeapKeyIndex.fingerprint(dnaHash, 0, dnaHash.length), record);
+        if (isMutant) {
+            mutants++;
+        } else {
+            humans++;
+        }
+        records = record + 1;
+        return record;
+    }
+
+    /** Espera a que el registro esté en disco según la política de fsync. */
+    private void awaitDurable(long record) {
+        if (fsync == MutantProperties.Store.Fsync.PERIODIC) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durable > record) {
+                return;  // lo cubrió el fsync de otro hilo
+            }
+            long target = fsync == MutantProperties.Store.Fsync.GROUP ? records : record + 1;
+            force(durable, target);
+            durable = Math.max(durable, target);
+        }
+    }
+
+    private void forceAll() {
+        synchronized (forceLock) {
+            long target = records;
+            if (target > durable) {
+                force(durable, target);
+                durable = target;
+            }
+        }
+    }
+
+    /** Fuerza a disco los registros {@code [from, to)}, región por región. */
+    private void force(long from, long to) {
+        long record = from;
+        while (record < to) {
+            long segmentEnd = ((record + 1) / recordsPerSegment + 1) * recordsPerSegment - 1;
+            long last = Math.min(to, segmentEnd);
+            int start = offset(record);
+            segment(record).force(start, (int) ((last - record) * RECORD_BYTES));
+            record = last;
+        }
+    }
+
+    private MappedByteBuffer segment(long record) {
+        return segments[(int) ((record + 1) / recordsPerSegment)];
+    }
+
+    private int offset(long record) {
+        return (int) ((record + 1) % recordsPerSegment * RECORD_BYTES);
+    }
+
+    private void ensureMapped(long record) {
+        final int needed = (int) ((record + 1) / recordsPerSegment) + 1;
+        if (segments.length >= needed) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, needed);
+        try {
+            for (int i = segments.length; i < needed; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentBytes, segmentBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo extender el log de veredictos " + path, e);
+        }
+        segments = grown;
+    }
+
+    /** Valida el encabezado de un log existente o escribe el de uno nuevo; devuelve el tamaño de región. */
+    private long readOrWriteHeader(long configuredSegmentBytes) throws IOException {
+        if (channel.size() == 0) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, configuredSegmentBytes);
+            header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_BYTES).putLong(12, configuredSegmentBytes);
+            header.force(0, RECORD_BYTES);
+            return configuredSegmentBytes;
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, RECORD_BYTES);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != RECORD_BYTES) {
+            throw new IllegalStateException(path + " no es un log de veredictos de versión " + VERSION);
+        }
+        long stored = header.getLong(12);
+        if (stored != configuredSegmentBytes) {
+            log.warn("El log {} usa regiones de {} bytes, se ignora mutant.store.segment-size", path, stored);
+        }
+        return stored;
+    }
+
+    /** Recorre el log hasta el primer slot vacío o inválido y reconstruye el índice y los conteos. */
+    private void recover() throws IOException {
+        final long slots = channel.size() / RECORD_BYTES;
+        for (long record = 0; record + 1 < slots; record++) {
+            ensureMapped(record);
+            MappedByteBuffer segment = segment(record);
+            int offset = offset(record);
+            int keyLength = segment.get(offset + KEY_LENGTH);
+            if (keyLength == 0) {
+                break;
+            }
+            segment.get(offset, scratch);
+            crc.reset();
+            crc.update(scratch, 0, CRC);
+            if (keyLength > DnaRecord.DNA_HASH_LENGTH || segment.getInt(offset + CRC) != (int) crc.getValue()) {
+                log.warn("Registro {} del log {} incompleto o dañado, se descarta junto con el resto", record, path);
+                segment.put(offset, new byte[RECORD_BYTES]);
+                break;
+            }
+            index.put(OffHeapKeyIndex.fingerprint(scratch, KEY, keyLength), record);
+            if ((scratch[FLAGS] & MUTANT_FLAG) != 0) {
+                mutants++;
+            } else {
+                humans++;
+            }
+            records = record + 1;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (periodicFsync != null) {
+            periodicFsync.shutdownNow();
+        }
+        if (channel.isOpen()) {
+            forceAll();
+            fileLock.release();
+            channel.close();
+        }
+    }
+}
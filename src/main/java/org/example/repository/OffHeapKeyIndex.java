@@ -0,0 +1,129 @@
+package org.example.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice de {@link MappedVerdictStore}: tabla hash fuera del heap con direccionamiento abierto y
+ * sondeo lineal. Cada slot ocupa 16 bytes, la huella de 64 bits de la clave y el número de registro
+ * más uno (0 = vacío); la clave completa se compara contra el log solo cuando coinciden las huellas.
+ *
+ * <p>Un único escritor (bajo el lock del store) y lectores sin lock: el número de registro se
+ * publica con semántica release después de la huella y del registro en el log, y al crecer se arma
+ * una tabla nueva que se publica entera, así un lector nunca ve una a medio copiar.
+ */
+final class OffHeapKeyIndex {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int SLOT_BYTES = 16;
+    private static final double MAX_LOAD = 0.7;
+    /** Slots de la tabla más grande que entra en un ByteBuffer. */
+    private static final long MAX_SLOTS = 1L << 26;
+
+    private volatile Table table;
+    private long size;
+
+    OffHeapKeyIndex(long expectedEntries) {
+        this.table = new Table(slotsFor(Math.max(16, expectedEntries)));
+    }
+
+    /** Número del registro con esta huella para el que {@code matches} da verdadero, o -1. */
+    long find(long fingerprint, LongPredicate matches) {
+        final Table t = table;
+        for (long slot = t.home(fingerprint); ; slot = (slot + 1) & t.mask) {
+            final int offset = (int) (slot * SLOT_BYTES);
+            final long stored = (long) LONGS.getAcquire(t.slots, offset + 8);
+            if (stored == 0) {
+                return -1;
+            }
+            if ((long) LONGS.get(t.slots, offset) == fingerprint && matches.test(stored - 1)) {
+                return stored - 1;
+            }
+        }
+    }
+
+    /** Agrega un registro cuya clave no está en el índice. Solo desde el hilo que tiene el lock del store. */
+    void put(long fingerprint, long record) {
+        if (size + 1 > table.capacity * MAX_LOAD) {
+            grow();
+        }
+        insert(table, fingerprint, record + 1);
+        size++;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return table.capacity * SLOT_BYTES;
+    }
+
+    private void grow() {
+        final Table old = table;
+        if (old.capacity >= MAX_SLOTS) {
+            throw new IllegalStateException("El índice de veredictos llegó a su capacidad máxima de "
+                    + (long) (MAX_SLOTS * MAX_LOAD) + " claves");
+        }
+        final Table grown = new Table(old.capacity * 2);
+        for (long slot = 0; slot < old.capacity; slot++) {
+            final int offset = (int) (slot * SLOT_BYTES);
+            final long stored = (long) LONGS.get(old.slots, offset + 8);
+            if (stored != 0) {
+                insert(grown, (long) LONGS.get(old.slots, offset), stored);
+            }
+        }
+        table = grown;
+    }
+
+    private static void insert(Table t, long fingerprint, long stored) {
+        long slot = t.home(fingerprint);
+        while ((long) LONGS.get(t.slots, (int) (slot * SLOT_BYTES) + 8) != 0) {
+            slot = (slot + 1) & t.mask;
+        }
+        final int offset = (int) (slot * SLOT_BYTES);
+        LONGS.set(t.slots, offset, fingerprint);
+        LONGS.setRelease(t.slots, offset + 8, stored);
+    }
+
+    private static long slotsFor(long entries) {
+        long slots = Long.highestOneBit((long) Math.ceil(entries / MAX_LOAD) - 1) << 1;
+        return Math.min(MAX_SLOTS, Math.max(16, slots));
+    }
+
+    /**
+     * Huella de 64 bits de una clave: FNV-1a más la mezcla final de MurmurHash3, porque las claves
+     * exactas (matrices chicas) no son digests y sus bits no están repartidos.
+     */
+    static long fingerprint(byte[] bytes, int from, int length) {
+        long h = 0xcbf2_9ce4_8422_2325L ^ length;
+        for (int i = from; i < from + length; i++) {
+            h = (h ^ (bytes[i] & 0xff)) * 0x0000_0100_0000_01b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51_afd7_ed55_8ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ce_b9fe_1a85_ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Table {
+        final ByteBuffer slots;
+        final long capacity;
+        final long mask;
+
+        Table(long capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.slots = ByteBuffer.allocateDirect((int) (capacity * SLOT_BYTES) + 8).alignedSlice(8)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        long home(long fingerprint) {
+            return fingerprint & mask;
+        }
+    }
+}
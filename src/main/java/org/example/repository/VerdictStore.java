@@ -0,0 +1,44 @@
+package org.example.repository;
+
+import org.example.entity.DnaRecord;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento de los veredictos por clave de deduplicación ({@code DnaRecord.dnaHash}). La
+ * implementación se elige con {@code mutant.store.type}: {@code JPA} usa {@link DnaRecordRepository}
+ * sobre la base de datos y {@code MAPPED} un log de solo agregado en un archivo mapeado en memoria
+ * ({@link MappedVerdictStore}).
+ */
+public interface VerdictStore {
+
+    Optional<DnaRecord> findByDnaHash(byte[] dnaHash);
+
+    List<DnaRecord> findByDnaHashIn(Collection<byte[]> dnaHashes);
+
+    /** Las claves de {@code hashes} que ya están guardadas. */
+    List<byte[]> findExistingHashes(Collection<byte[]> hashes);
+
+    long countByIsMutant(boolean isMutant);
+
+    long count();
+
+    /**
+     * Guarda el registro solo si la clave no existe. Devuelve 1 si lo guardó y 0 si ya estaba; una
+     * {@code DataIntegrityViolationException} también significa que ya estaba.
+     */
+    int insertIfAbsent(byte[] dnaHash, byte[] dnaPacked, boolean isMutant, LocalDateTime createdAt);
+
+    /**
+     * Guarda en un solo lote registros cuyas claves no existen. Si alguna ya existe lanza
+     * {@code DataIntegrityViolationException} y el llamador debe reintentar con {@link #insertIfAbsent}.
+     */
+    void insertAll(List<DnaRecord> records);
+
+    /** Recorre todas las claves guardadas, sin cargarlas juntas en memoria. */
+    void forEachKey(Consumer<byte[]> action);
+}
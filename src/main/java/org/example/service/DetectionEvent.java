@@ -0,0 +1,41 @@
+package org.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una detección de {@link MutantDetector}. El motor informa la fila en la que alcanzó
+ * el límite de secuencias en la misma pasada que cuenta ({@code DetectionEngine.scan}), así que
+ * habilitar el evento no cambia el recorrido de la matriz.
+ */
+@Name("org.example.Detection")
+@Label("DNA Detection")
+@Category({"Mutant Detector", "Detection"})
+@Description("Conteo de secuencias sobre una matriz y fila en la que cortó la búsqueda")
+@StackTrace(false)
+final class DetectionEvent extends Event {
+
+    @Label("Matrix Size")
+    int matrixSize;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Parallel")
+    boolean parallel;
+
+    @Label("Sequences Found")
+    @Description("Secuencias contadas hasta cortar; la búsqueda se detiene al llegar a 2")
+    int sequencesFound;
+
+    @Label("Early Exit Row")
+    @Description("Fila (exclusiva) en la que se alcanzó el límite; -1 si no se alcanzó o si la detección fue en paralelo")
+    int earlyExitRow;
+
+    @Label("Mutant")
+    boolean mutant;
+}
@@ -0,0 +1,64 @@
+package org.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR de un análisis de {@link MutantService}: de dónde salió el veredicto y cuánto tardó
+ * cada fase. Las fases que no corrieron quedan en 0. La codificación (validar y calcular la clave)
+ * ocurre antes de {@code begin()}, así que su duración no entra en la del evento. Sin una
+ * grabación activa que lo habilite, {@code begin()} y {@code commit()} no hacen nada y el JIT
+ * elimina la instancia.
+ */
+@Name(DnaAnalysisEvent.NAME)
+@Label("DNA Analysis")
+@Category({"Mutant Detector", "Analysis"})
+@Description("Análisis de un ADN: origen del veredicto y duración de cada fase")
+@StackTrace(false)
+final class DnaAnalysisEvent extends Event {
+
+    static final String NAME = "org.example.DnaAnalysis";
+
+    /** Veredicto servido por la cache de veredictos. */
+    static final String CACHE = "CACHE";
+    /** Otro request concurrente con el mismo ADN resolvió el veredicto. */
+    static final String COALESCED = "COALESCED";
+    /** Encontrado en la base de datos. */
+    static final String DB_HIT = "DB_HIT";
+    /** No estaba en la base: se detectó y se insertó. */
+    static final String DB_MISS = "DB_MISS";
+    /** El filtro de claves evitó la búsqueda: se detectó y se insertó. */
+    static final String FILTERED = "FILTERED";
+
+    @Label("Matrix Size")
+    @Description("N de la matriz de N x N bases")
+    int matrixSize;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Mutant")
+    boolean mutant;
+
+    @Label("Encode")
+    @Description("Validación, codificación y cálculo de la clave; 0 si el ADN llegó ya codificado")
+    @Timespan
+    long encodeDuration;
+
+    @Label("Lookup")
+    @Timespan
+    long lookupDuration;
+
+    @Label("Detection")
+    @Timespan
+    long detectDuration;
+
+    @Label("Insert")
+    @Timespan
+    long insertDuration;
+}
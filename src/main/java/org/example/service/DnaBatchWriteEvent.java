@@ -0,0 +1,28 @@
+package org.example.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de un lote de inserciones de {@link DnaRecordWriter}. */
+@Name("org.example.DnaBatchWrite")
+@Label("DNA Batch Write")
+@Category({"Mutant Detector", "Persistence"})
+@Description("Inserción por lotes de registros nuevos")
+@StackTrace(false)
+final class DnaBatchWriteEvent extends Event {
+
+    @Label("Records")
+    @Description("Registros recibidos, antes de descartar repetidos y existentes")
+    int records;
+
+    @Label("Inserted")
+    int inserted;
+
+    @Label("Write Behind")
+    @Description("Si el lote lo escribió el hilo de write-behind")
+    boolean writeBehind;
+}
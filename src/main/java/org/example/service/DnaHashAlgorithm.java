@@ -0,0 +1,38 @@
+package org.example.service;
+
+/**
+ * Algoritmo con el que se calcula la clave de deduplicación. Cada clave guardada empieza con el
+ * tag del algoritmo, así que las claves de algoritmos distintos nunca se comparan entre sí. El tag
+ * {@value DnaKeyFactory#EXACT_KEY_TAG} queda reservado para las claves exactas de matrices chicas.
+ */
+public enum DnaHashAlgorithm {
+    /** SHA-256 de las filas concatenadas en ASCII; el formato histórico. */
+    SHA_256((byte) 1, 32),
+    /** Huella MurmurHash3 x64 de 128 bits sobre las palabras de la matriz empaquetada; no criptográfica. */
+    MURMUR3_128((byte) 2, 16);
+
+    private final byte tag;
+    private final int digestLength;
+
+    DnaHashAlgorithm(byte tag, int digestLength) {
+        this.tag = tag;
+        this.digestLength = digestLength;
+    }
+
+    public byte getTag() {
+        return tag;
+    }
+
+    public int getDigestLength() {
+        return digestLength;
+    }
+
+    /** Longitud de la clave guardada: tag más digest. */
+    public int getKeyLength() {
+        return 1 + digestLength;
+    }
+
+    public boolean isCryptographic() {
+        return this == SHA_256;
+    }
+}
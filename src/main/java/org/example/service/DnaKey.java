@@ -0,0 +1,63 @@
+package org.example.service;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Clave de deduplicación de un ADN: el tag del algoritmo más el digest, tal como se guarda en la
+ * columna {@code dna_hash}. Envuelve el {@code byte[]} para poder usarlo como clave de mapas y de
+ * la cache; los arreglos no se copian, por lo que no deben modificarse.
+ *
+ * <p>Con una huella no criptográfica en modo verificación la clave lleva además la matriz
+ * serializada, que participa de la igualdad: dos ADN distintos con la misma huella nunca comparten
+ * entrada en la cache.
+ */
+public final class DnaKey {
+
+    private final byte[] bytes;
+    private final byte[] verification;
+    private final int hashCode;
+
+    private DnaKey(byte[] bytes, byte[] verification) {
+        this.bytes = bytes;
+        this.verification = verification;
+        this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    public static DnaKey of(byte[] bytes) {
+        return new DnaKey(bytes, null);
+    }
+
+    public static DnaKey of(byte[] bytes, byte[] verification) {
+        return new DnaKey(bytes, verification);
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /** Matriz serializada para verificar colisiones, o null si la clave no se verifica. */
+    public byte[] verification() {
+        return verification;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof DnaKey key && hashCode == key.hashCode && Arrays.equals(bytes, key.bytes)
+                && Arrays.equals(verification, key.verification);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /** Representación hexadecimal, solo para logs. */
+    @Override
+    public String toString() {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,317 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.entity.DnaRecord;
+import org.example.exception.DnaHashCalculationException;
+import org.example.service.detection.PackedDnaMatrix;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Valida, codifica y calcula la clave de deduplicación de cada ADN según
+ * {@code mutant.hash.algorithm}. SHA-256 se alimenta en la misma pasada que valida las filas;
+ * la huella Murmur3 se calcula después sobre las palabras empaquetadas, sin concatenar las filas.
+ *
+ * <p>Las matrices de hasta {@code mutant.hash.exact-max-size} filas no se hashean: la clave es la
+ * propia matriz a 2 bits por base (tag {@value #EXACT_KEY_TAG}, N y las filas seguidas), exacta y
+ * sin colisiones. Con N = 11 son 31 bytes de bases, el máximo que entra en la columna. Viene
+ * desactivado: una base con registros de esos tamaños guardados con hash no los vuelve a encontrar.
+ *
+ * <p>Con {@code mutant.hash.canonicalize} la clave se calcula sobre la forma canónica de la matriz
+ * (la menor de sus ocho simetrías), de modo que las rotaciones, transpuestas y espejos de un ADN
+ * comparten registro. Las claves guardadas antes de activarlo no se pueden recalcular (el hash no
+ * es reversible), así que con {@code mutant.hash.legacy-lookup} cada ADN no canónico trae también
+ * su clave sin canonizar para buscar esos registros.
+ *
+ * <p>Con {@code mutant.hash.verify} y una huella no criptográfica, cada registro guarda además la
+ * matriz serializada; si al encontrar la clave en la base la matriz no coincide hay una colisión y
+ * ese ADN pasa a usar su clave SHA-256.
+ *
+ * <p>El digest SHA-256 y el buffer de filas que se le entregan se reutilizan por hilo (ver
+ * {@link Scratch}): codificar un ADN solo reserva la matriz y su clave, que forman el resultado.
+ */
+@Slf4j
+@Component
+public class DnaKeyFactory {
+
+    /** Tag de las claves exactas; no corresponde a ningún {@link DnaHashAlgorithm}. */
+    public static final byte EXACT_KEY_TAG = 3;
+    /** Mayor N cuya matriz exacta (más tag y N) entra en {@link DnaRecord#DNA_HASH_LENGTH} bytes. */
+    public static final int MAX_EXACT_SIZE = 11;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private static final DnaKeyFactory DEFAULTS =
+            new DnaKeyFactory(DnaHashAlgorithm.SHA_256, false, 0);
+
+    private final DnaHashAlgorithm algorithm;
+    private final boolean verify;
+    private final int exactMaxSize;
+    private final boolean canonicalize;
+    private final boolean legacyLookup;
+
+    @Autowired
+    public DnaKeyFactory(MutantProperties properties) {
+        this(properties.getHash());
+        if (properties.getHash().getExactMaxSize() > MAX_EXACT_SIZE) {
+            log.warn("mutant.hash.exact-max-size={} supera el máximo de {}, se usa {}",
+                    properties.getHash().getExactMaxSize(), MAX_EXACT_SIZE, MAX_EXACT_SIZE);
+        }
+        log.info("Clave de deduplicación: exacta hasta N={}, luego {}{}{}", exactMaxSize, algorithm,
+                verifies() ? " con verificación de colisiones" : "",
+                canonicalize ? ", canónica por simetría" : "");
+    }
+
+    public DnaKeyFactory(MutantProperties.Hash config) {
+        this.algorithm = config.getAlgorithm();
+        this.verify = config.isVerify();
+        this.exactMaxSize = Math.max(0, Math.min(config.getExactMaxSize(), MAX_EXACT_SIZE));
+        this.canonicalize = config.isCanonicalize();
+        this.legacyLookup = config.isLegacyLookup();
+    }
+
+    /** Sin canonización; con {@code exactMaxSize = 0} todas las claves se hashean. */
+    public DnaKeyFactory(DnaHashAlgorithm algorithm, boolean verify, int exactMaxSize) {
+        this(hashConfig(algorithm, verify, exactMaxSize));
+    }
+
+    private static MutantProperties.Hash hashConfig(DnaHashAlgorithm algorithm, boolean verify, int exactMaxSize) {
+        MutantProperties.Hash config = new MutantProperties.Hash();
+        config.setAlgorithm(algorithm);
+        config.setVerify(verify);
+        config.setExactMaxSize(exactMaxSize);
+        config.setCanonicalize(false);
+        return config;
+    }
+
+    /** Configuración por defecto (SHA-256 para todo N), para cuando no hay contexto de Spring. */
+    public static DnaKeyFactory defaults() {
+        return DEFAULTS;
+    }
+
+    public DnaHashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Si las claves llevan la matriz para verificar colisiones. */
+    public boolean verifies() {
+        return verify && !algorithm.isCryptographic();
+    }
+
+    /** Valida, codifica y calcula la clave; devuelve null si el ADN es inválido. */
+    public EncodedDna tryEncode(String[] dna) {
+        if (canonicalize) {
+            return tryEncodeCanonical(dna);
+        }
+        if (dna != null && dna.length <= exactMaxSize) {
+            PackedDnaMatrix matrix = PackedDnaMatrix.tryEncode(dna, null);
+            return matrix == null ? null : new EncodedDna(matrix, DnaKey.of(exactKey(matrix)));
+        }
+        if (algorithm == DnaHashAlgorithm.SHA_256) {
+            Scratch scratch = SCRATCH.get();
+            MessageDigest digest = scratch.sha256();
+            PackedDnaMatrix matrix = PackedDnaMatrix.tryEncode(dna, digest, scratch.row(dna == null ? 0 : dna.length));
+            return matrix == null ? null : new EncodedDna(matrix, DnaKey.of(sha256Key(digest)));
+        }
+        PackedDnaMatrix matrix = PackedDnaMatrix.tryEncode(dna, null);
+        if (matrix == null) {
+            return null;
+        }
+        return new EncodedDna(matrix, murmurKey(matrix));
+    }
+
+    /**
+     * Codifica y calcula la clave sobre la forma canónica. La matriz del resultado sigue siendo la
+     * original: el veredicto es el mismo y así no hace falta materializar la canónica para detectar.
+     */
+    private EncodedDna tryEncodeCanonical(String[] dna) {
+        PackedDnaMatrix matrix = PackedDnaMatrix.tryEncode(dna, null);
+        return matrix == null ? null : encode(matrix);
+    }
+
+    /** Clave, y con canonización también la clave sin canonizar, de una matriz ya codificada. */
+    private EncodedDna encode(PackedDnaMatrix matrix) {
+        if (!canonicalize) {
+            return new EncodedDna(matrix, keyOf(matrix));
+        }
+        PackedDnaMatrix canonical = matrix.canonical();
+        DnaKey legacyKey = legacyLookup && canonical != matrix ? keyOf(matrix) : null;
+        return new EncodedDna(matrix, keyOf(canonical), legacyKey);
+    }
+
+    /**
+     * Codificador para un ADN que llega fila por fila, con N igual al largo de la primera fila.
+     * Produce la misma clave que {@link #tryEncode} con las mismas filas.
+     */
+    public RowEncoder rowEncoder(int n) {
+        return new RowEncoder(n);
+    }
+
+    /** Clave SHA-256 de una matriz ya codificada; se usa cuando la huella colisiona. */
+    public EncodedDna fallback(EncodedDna encoded) {
+        PackedDnaMatrix matrix = encoded.getMatrix();
+        PackedDnaMatrix keyed = canonicalize ? matrix.canonical() : matrix;
+        return new EncodedDna(matrix, DnaKey.of(sha256Key(keyed)));
+    }
+
+    private DnaKey keyOf(PackedDnaMatrix matrix) {
+        if (matrix.size() <= exactMaxSize) {
+            return DnaKey.of(exactKey(matrix));
+        }
+        return algorithm == DnaHashAlgorithm.SHA_256 ? DnaKey.of(sha256Key(matrix)) : murmurKey(matrix);
+    }
+
+    private DnaKey murmurKey(PackedDnaMatrix matrix) {
+        byte[] key = newKey(DnaHashAlgorithm.MURMUR3_128);
+        Murmur3.hash128(matrix, key, 1);
+        return DnaKey.of(key, verifies() ? matrix.toBytes() : null);
+    }
+
+    /** SHA-256 de las filas en ASCII reconstruidas desde la matriz; igual al de la pasada de validación. */
+    private static byte[] sha256Key(PackedDnaMatrix matrix) {
+        Scratch scratch = SCRATCH.get();
+        MessageDigest digest = scratch.sha256();
+        final int n = matrix.size();
+        byte[] row = scratch.row(n);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                row[c] = (byte) matrix.baseChar(r, c);
+            }
+            digest.update(row, 0, n);
+        }
+        return sha256Key(digest);
+    }
+
+    /**
+     * Indica si el registro encontrado con la clave corresponde realmente a este ADN. Las claves
+     * sin verificación siempre coinciden; un registro sin matriz guardada no se puede verificar y
+     * se trata como colisión.
+     */
+    public boolean matches(DnaRecord record, DnaKey key) {
+        return key.verification() == null || Arrays.equals(record.getDnaPacked(), key.verification());
+    }
+
+    /** Tag, N y las filas de la matriz seguidas a 2 bits por base, completando el último byte con ceros. */
+    private static byte[] exactKey(PackedDnaMatrix matrix) {
+        final int n = matrix.size();
+        final int rowBits = 2 * n;
+        byte[] key = new byte[2 + (rowBits * n + 7) / 8];
+        key[0] = EXACT_KEY_TAG;
+        key[1] = (byte) n;
+        int position = 2;
+        long pending = 0;
+        int pendingBits = 0;
+        for (int row = 0; row < n; row++) {
+            // con N <= 11 cada fila ocupa una sola palabra
+            pending |= matrix.word(row, 0) << pendingBits;
+            pendingBits += rowBits;
+            while (pendingBits >= 8) {
+                key[position++] = (byte) pending;
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+        if (pendingBits > 0) {
+            key[position] = (byte) pending;
+        }
+        return key;
+    }
+
+    private static byte[] newKey(DnaHashAlgorithm algorithm) {
+        byte[] key = new byte[algorithm.getKeyLength()];
+        key[0] = algorithm.getTag();
+        return key;
+    }
+
+    private static byte[] sha256Key(MessageDigest digest) {
+        byte[] key = newKey(DnaHashAlgorithm.SHA_256);
+        try {
+            digest.digest(key, 1, DnaHashAlgorithm.SHA_256.getDigestLength());
+        } catch (DigestException e) {
+            throw new DnaHashCalculationException("No se pudo calcular el SHA-256 del ADN.", e);
+        }
+        return key;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new DnaHashCalculationException("El algoritmo SHA-256 no está disponible.", e);
+        }
+    }
+
+    /**
+     * Validación y codificación incremental: cada fila se valida al agregarla, así que quien lee el
+     * ADN de un flujo puede cortar en la primera fila inválida sin leer el resto. Con SHA-256 sobre la
+     * matriz original el digest se alimenta fila por fila, como en {@link #tryEncode}; las demás
+     * claves se calculan al terminar, desde la matriz. Usa el digest del hilo, así que se debe
+     * completar en el hilo que lo creó.
+     */
+    public final class RowEncoder {
+
+        private final PackedDnaMatrix.Builder matrix;
+        private final MessageDigest digest;
+        private final byte[] rowBytes;
+
+        private RowEncoder(int n) {
+            this.matrix = new PackedDnaMatrix.Builder(n);
+            if (!canonicalize && n > exactMaxSize && algorithm == DnaHashAlgorithm.SHA_256) {
+                Scratch scratch = SCRATCH.get();
+                this.digest = scratch.sha256();
+                this.rowBytes = scratch.row(n);
+            } else {
+                this.digest = null;
+                this.rowBytes = null;
+            }
+        }
+
+        /** Agrega la fila {@code chars[offset, offset + length)}; false si es inválida o sobra. */
+        public boolean addRow(char[] chars, int offset, int length) {
+            return matrix.addRow(chars, offset, length, digest, rowBytes);
+        }
+
+        /** Agrega la fila siguiente ya empaquetada (ver {@link PackedDnaMatrix.Builder#addPackedRow}). */
+        public boolean addPackedRow(byte[] packed, int offset) {
+            return matrix.addPackedRow(packed, offset, digest, rowBytes);
+        }
+
+        /** La matriz y su clave, o null si faltan filas. */
+        public EncodedDna finish() {
+            PackedDnaMatrix encoded = matrix.build();
+            if (encoded == null) {
+                return null;
+            }
+            return digest != null ? new EncodedDna(encoded, DnaKey.of(sha256Key(digest))) : encode(encoded);
+        }
+    }
+
+    /**
+     * Objetos de trabajo de un hilo: {@code MessageDigest.getInstance} busca el proveedor y reserva
+     * el estado del algoritmo en cada llamada, y el buffer de filas sería otro arreglo por request.
+     * Ninguno sale de la codificación, así que no hace falta copiarlos.
+     */
+    private static final class Scratch {
+        private final MessageDigest sha256 = DnaKeyFactory.sha256();
+        private byte[] row = new byte[64];
+
+        /** El digest del hilo, vacío: una codificación anterior pudo cortarse en una fila inválida. */
+        MessageDigest sha256() {
+            sha256.reset();
+            return sha256;
+        }
+
+        byte[] row(int n) {
+            if (row.length < n) {
+                row = new byte[Math.max(n, 2 * row.length)];
+            }
+            return row;
+        }
+    }
+}
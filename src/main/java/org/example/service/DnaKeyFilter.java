@@ -0,0 +1,101 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.dto.FilterStatsResponse;
+import org.example.repository.VerdictStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de pertenencia de las claves guardadas en el {@link VerdictStore}, consultado antes de
+ * buscarlas: si responde que una clave no está, el ADN es nuevo con seguridad y se pasa directo a
+ * detectar e insertar. Se carga desde el store al arrancar y se actualiza con cada inserción; hasta
+ * terminar la carga responde "puede estar" siempre.
+ *
+ * <p>Crece agregando slices a medida que la tabla crece (ver {@link ScalableBloomFilter}), sin
+ * reconstruirse ni dejar de responder.
+ */
+@Slf4j
+@Component
+public class DnaKeyFilter {
+
+    private final VerdictStore verdictStore;
+    private final ScalableBloomFilter filter;
+    private final LongAdder skippedLookups = new LongAdder();
+    private volatile boolean ready;
+
+    public DnaKeyFilter(VerdictStore verdictStore, MutantProperties properties) {
+        MutantProperties.Filter config = properties.getFilter();
+        this.verdictStore = verdictStore;
+        this.filter = config.isEnabled()
+                ? new ScalableBloomFilter(config.getExpectedInsertions(), config.getFalsePositiveRate())
+                : null;
+    }
+
+    /** Filtro apagado: toda clave "puede estar" y siempre se consulta la base de datos. */
+    public static DnaKeyFilter disabled() {
+        MutantProperties properties = new MutantProperties();
+        properties.getFilter().setEnabled(false);
+        return new DnaKeyFilter(null, properties);
+    }
+
+    /** {@code false} solo si la clave seguro no está guardada. */
+    public boolean mightContain(DnaKey key) {
+        if (filter == null || !ready) {
+            return true;
+        }
+        if (filter.mightContain(Murmur3.hash64(key.bytes()))) {
+            return true;
+        }
+        skippedLookups.increment();
+        return false;
+    }
+
+    /**
+     * Debe llamarse al insertar (o encolar) el registro de la clave: antes en el request individual,
+     * después de escribir el lote en {@link DnaResolver.Batch#flush}.
+     */
+    public void put(DnaKey key) {
+        if (filter != null) {
+            filter.put(Murmur3.hash64(key.bytes()));
+        }
+    }
+
+    /**
+     * Carga las claves existentes. Corre después de {@code DnaHashMigration} y en paralelo con los
+     * primeros requests: las inserciones concurrentes también entran al filtro, así que no se pierde
+     * ninguna aunque el recorrido de la tabla no las vea.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (filter == null) {
+            return;
+        }
+        filter.reserve(verdictStore.count());
+        verdictStore.forEachKey(key -> filter.put(Murmur3.hash64(key)));
+        ready = true;
+        log.info("Filtro de claves cargado: {} claves, {} slices, {} KiB, falsos positivos estimados {}",
+                filter.elements(), filter.sliceCount(), filter.memoryBytes() / 1024,
+                String.format("%.5f", filter.estimatedFpp()));
+    }
+
+    public boolean isEnabled() {
+        return filter != null;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public FilterStatsResponse getStats() {
+        if (filter == null) {
+            return new FilterStatsResponse(false, false, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new FilterStatsResponse(true, ready, filter.elements(), filter.capacity(), filter.sliceCount(),
+                filter.memoryBytes(), filter.targetFpp(), filter.estimatedFpp(), skippedLookups.sum());
+    }
+}
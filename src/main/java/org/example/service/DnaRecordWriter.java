@@ -0,0 +1,247 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.entity.DnaRecord;
+import org.example.repository.VerdictStore;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Inserción por lotes de registros nuevos. En modo ASYNC (write-behind) los registros se encolan
+ * y un hilo en segundo plano los escribe en lotes de hasta {@code batch-size} registros o cada
+ * {@code max-latency}, lo que ocurra primero, con {@link VerdictStore#insertAll}.
+ *
+ * <p>Un lote que falla se reintenta registro por registro; los que vuelven a fallar no tienen a
+ * quién informarle el error y se cuentan en {@code mutant.persistence.dropped}. Después de
+ * {@link #shutdown} ya no se encola: cada registro se escribe en el hilo llamador.
+ */
+@Slf4j
+@Component
+public class DnaRecordWriter implements MeterBinder {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    static {
+        // la primera instancia de un evento sin registrar tarda cientos de ms aunque JFR esté apagado
+        FlightRecorder.register(DnaBatchWriteEvent.class);
+    }
+
+    private final VerdictStore verdictStore;
+    private final StatsService statsService;
+    private final MutantProperties.Persistence config;
+    private final BlockingQueue<DnaRecord> queue;
+    private final Thread writerThread;
+    private final LongAdder droppedRecords = new LongAdder();
+    private volatile boolean stopping;
+
+    public DnaRecordWriter(VerdictStore verdictStore, StatsService statsService, MutantProperties properties) {
+        this.verdictStore = verdictStore;
+        this.statsService = statsService;
+        this.config = properties.getPersistence();
+        if (config.getDurability() == MutantProperties.Persistence.Durability.ASYNC) {
+            this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            this.writerThread = new Thread(this::runWriter, "dna-record-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+            log.info("Persistencia write-behind: lotes de {} registros, latencia máx. {}",
+                    config.getBatchSize(), config.getMaxLatency());
+        } else {
+            this.queue = null;
+            this.writerThread = null;
+        }
+    }
+
+    public boolean isWriteBehind() {
+        return queue != null;
+    }
+
+    /** Encola un registro nuevo; si la cola está llena o cerrada se escribe en el hilo llamador. */
+    public void enqueue(DnaRecord record) {
+        if (stopping || !queue.offer(record)) {
+            log.debug("Cola de escritura llena o cerrada, se inserta en el hilo del request");
+            insertAll(List.of(record));
+            return;
+        }
+        if (stopping) {
+            // el escritor pudo terminar entre la primera consulta y el offer: nadie más vacía la cola
+            List<DnaRecord> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            if (!pending.isEmpty()) {
+                insertAll(pending);
+            }
+        }
+    }
+
+    public int pending() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    /** Registros del write-behind que no se pudieron escribir ni siquiera de a uno. */
+    public long droppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mutant.persistence.dropped", droppedRecords, LongAdder::sum)
+                .description("Registros del write-behind descartados porque su inserción falló")
+                .register(registry);
+    }
+
+    /**
+     * Inserta en un único lote los registros cuyo hash todavía no existe, descartando hashes
+     * repetidos dentro del lote. Actualiza las estadísticas por cada fila insertada y devuelve
+     * cuántas se insertaron.
+     */
+    public int insertAll(Collection<DnaRecord> records) {
+        DnaBatchWriteEvent event = new DnaBatchWriteEvent();
+        event.begin();
+        int inserted = insertUnique(records);
+        if (event.shouldCommit()) {
+            event.records = records.size();
+            event.inserted = inserted;
+            event.writeBehind = Thread.currentThread() == writerThread;
+            event.commit();
+        }
+        return inserted;
+    }
+
+    private int insertUnique(Collection<DnaRecord> records) {
+        Map<DnaKey, DnaRecord> unique = new LinkedHashMap<>();
+        for (DnaRecord record : records) {
+            unique.putIfAbsent(DnaKey.of(record.getDnaHash()), record);
+        }
+        if (unique.isEmpty()) {
+            return 0;
+        }
+        List<byte[]> hashes = new ArrayList<>(unique.size());
+        unique.values().forEach(record -> hashes.add(record.getDnaHash()));
+        Set<DnaKey> existing = new HashSet<>();
+        verdictStore.findExistingHashes(hashes).forEach(hash -> existing.add(DnaKey.of(hash)));
+        List<DnaRecord> toInsert = new ArrayList<>(unique.size());
+        for (Map.Entry<DnaKey, DnaRecord> entry : unique.entrySet()) {
+            DnaRecord record = entry.getValue();
+            if (!existing.contains(entry.getKey())) {
+                toInsert.add(record);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return 0;
+        }
+        try {
+            verdictStore.insertAll(toInsert);
+            toInsert.forEach(record -> statsService.recordNewDna(record.isMutant()));
+            return toInsert.size();
+        } catch (DataIntegrityViolationException e) {
+            // Otro hilo o instancia insertó alguno de los hashes entre la consulta y el lote
+            log.debug("Conflicto de hash en el lote, se reintenta registro por registro");
+            return insertOneByOne(toInsert);
+        }
+    }
+
+    private int insertOneByOne(List<DnaRecord> records) {
+        int inserted = 0;
+        for (DnaRecord record : records) {
+            try {
+                if (verdictStore.insertIfAbsent(record.getDnaHash(), record.getDnaPacked(), record.isMutant(),
+                        record.getCreatedAt()) == 1) {
+                    statsService.recordNewDna(record.isMutant());
+                    inserted++;
+                }
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Hash {} ya registrado", DnaKey.of(record.getDnaHash()));
+            }
+        }
+        return inserted;
+    }
+
+    private void runWriter() {
+        final int batchSize = config.getBatchSize();
+        final long maxLatencyNanos = config.getMaxLatency().toNanos();
+        List<DnaRecord> batch = new ArrayList<>(batchSize);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                DnaRecord first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                final long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    DnaRecord next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+                queue.drainTo(batch);
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<DnaRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insertAll(batch);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo escribir un lote de {} registros, se reintenta de a uno", batch.size(), e);
+            retryOneByOne(batch);
+        }
+        batch.clear();
+    }
+
+    private void retryOneByOne(List<DnaRecord> batch) {
+        int dropped = 0;
+        RuntimeException lastError = null;
+        for (DnaRecord record : batch) {
+            try {
+                insertAll(List.of(record));
+            } catch (RuntimeException e) {
+                dropped++;
+                lastError = e;
+            }
+        }
+        if (dropped > 0) {
+            droppedRecords.add(dropped);
+            log.error("Se descartaron {} de {} registros del lote", dropped, batch.size(), lastError);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        stopping = true;
+        writerThread.join(config.getShutdownTimeout().toMillis());
+        if (writerThread.isAlive()) {
+            log.warn("La cola de escritura no terminó de vaciarse: {} registros pendientes", queue.size());
+            writerThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.DnaRecord;
+import org.example.repository.VerdictStore;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Resolución de un ADN que no está en la cache, compartida por {@link MutantService} y
+ * {@link MutantBatchService}: single-flight por clave con {@link RequestCoalescer}, búsqueda por
+ * clave (y por la clave sin canonizar), cambio a SHA-256 si la huella colisiona, detección e
+ * inserción. Los dos servicios solo difieren en de dónde salen las búsquedas y a dónde van los
+ * registros nuevos ({@link Storage}): el request individual consulta e inserta de a uno, el lote
+ * resuelve sus búsquedas con consultas IN y escribe los registros nuevos en un único lote.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DnaResolver {
+
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private final MutantDetector mutantDetector;
+    private final VerdictStore verdictStore;
+    private final VerdictCache verdictCache;
+    private final StatsService statsService;
+    private final DnaRecordWriter dnaRecordWriter;
+    private final DnaKeyFactory dnaKeyFactory;
+    private final DnaKeyFilter dnaKeyFilter;
+    private final RequestCoalescer requestCoalescer;
+    private final PipelineMetrics metrics;
+
+    private final Storage direct = new Storage() {
+        @Override
+        public Optional<DnaRecord> find(DnaKey key, DnaAnalysisEvent event) {
+            return findOne(key, event);
+        }
+
+        @Override
+        public boolean insert(DnaRecord record, DnaAnalysisEvent event) {
+            // antes de escribir, para que un request concurrente con el mismo ADN no se saltee la búsqueda
+            dnaKeyFilter.put(DnaKey.of(record.getDnaHash()));
+            long start = metrics.start(event.isEnabled());
+            boolean inserted = true;
+            if (dnaRecordWriter.isWriteBehind()) {
+                dnaRecordWriter.enqueue(record);
+            } else {
+                inserted = insertIfAbsent(record);
+            }
+            event.insertDuration = metrics.record(PipelinePhase.INSERT, start);
+            return inserted;
+        }
+
+        @Override
+        public void publish(DnaKey key, boolean isMutant) {
+            verdictCache.put(key, isMutant);
+        }
+    };
+
+    /** Resuelve un ADN de un request individual, buscando e insertando de a uno. */
+    public boolean resolve(EncodedDna encoded, DnaAnalysisEvent event) {
+        return coalesce(encoded, event, direct);
+    }
+
+    /**
+     * Prepara la resolución de un lote: busca todas las claves (y las claves sin canonizar de las
+     * que no aparecen) con consultas IN antes de resolver cada ADN con {@link Batch#resolve}.
+     */
+    public Batch batch(Collection<EncodedDna> encodings) {
+        return new Batch(encodings);
+    }
+
+    private boolean analyze(EncodedDna encoded, DnaAnalysisEvent event, Storage storage) {
+        Boolean cachedVerdict = verdictCache.getIfPresent(encoded.getKey());
+        if (cachedVerdict != null) {
+            event.outcome = DnaAnalysisEvent.CACHE;
+            return cachedVerdict;
+        }
+        return coalesce(encoded, event, storage);
+    }
+
+    private boolean coalesce(EncodedDna encoded, DnaAnalysisEvent event, Storage storage) {
+        // si lo resuelve otro request, resolveStored no corre en este hilo y el resultado queda así
+        event.outcome = DnaAnalysisEvent.COALESCED;
+        return requestCoalescer.execute(encoded.getKey(), () -> resolveStored(encoded, event, storage));
+    }
+
+    /** Búsqueda, detección e inserción de un ADN que no está en la cache. */
+    private boolean resolveStored(EncodedDna encoded, DnaAnalysisEvent event, Storage storage) {
+        DnaKey key = encoded.getKey();
+        event.outcome = DnaAnalysisEvent.FILTERED;  // find lo cambia si llega a consultar la base
+
+        Optional<DnaRecord> existingRecord = storage.find(key, event);
+        if (existingRecord.isPresent()) {
+            if (!dnaKeyFactory.matches(existingRecord.get(), key)) {
+                log.warn("Colisión de huella {}, se usa la clave SHA-256", key);
+                return analyze(dnaKeyFactory.fallback(encoded), event, storage);
+            }
+            boolean isMutant = existingRecord.get().isMutant();
+            verdictCache.put(key, isMutant);
+            return isMutant;
+        }
+
+        DnaKey legacyKey = encoded.getLegacyKey();
+        if (legacyKey != null) {
+            // Registro guardado antes de canonizar: no se duplica, solo se cachea bajo la clave canónica
+            Optional<DnaRecord> legacyRecord = storage.find(legacyKey, event)
+                    .filter(r -> dnaKeyFactory.matches(r, legacyKey));
+            if (legacyRecord.isPresent()) {
+                boolean isMutant = legacyRecord.get().isMutant();
+                verdictCache.put(key, isMutant);
+                return isMutant;
+            }
+            if (event.outcome.equals(DnaAnalysisEvent.DB_HIT)) {
+                event.outcome = DnaAnalysisEvent.DB_MISS;  // la fila encontrada era de otro ADN
+            }
+        }
+
+        long start = metrics.start(event.isEnabled());
+        boolean isMutant = mutantDetector.isMutant(encoded.getMatrix());
+        event.detectDuration = metrics.record(PipelinePhase.DETECT, start);
+
+        DnaRecord record = new DnaRecord();
+        record.setDnaHash(key.bytes());
+        record.setMutant(isMutant);
+        record.setDnaPacked(key.verification());
+        if (!storage.insert(record, event)) {
+            // Otro request guardó el mismo ADN entre la búsqueda y la inserción
+            Optional<DnaRecord> storedRecord = verdictStore.findByDnaHash(key.bytes());
+            if (storedRecord.isPresent() && !dnaKeyFactory.matches(storedRecord.get(), key)) {
+                log.warn("Colisión de huella {}, se usa la clave SHA-256", key);
+                return analyze(dnaKeyFactory.fallback(encoded), event, storage);
+            }
+            isMutant = storedRecord.map(DnaRecord::isMutant).orElse(isMutant);
+        }
+        storage.publish(key, isMutant);
+
+        return isMutant;
+    }
+
+    /** Búsqueda por clave, salvo que el filtro de claves asegure que no está guardada. */
+    private Optional<DnaRecord> findOne(DnaKey key, DnaAnalysisEvent event) {
+        if (!dnaKeyFilter.mightContain(key)) {
+            metrics.lookup(PipelineMetrics.LookupOutcome.SKIPPED);
+            return Optional.empty();
+        }
+        long start = metrics.start(event.isEnabled());
+        Optional<DnaRecord> record = verdictStore.findByDnaHash(key.bytes());
+        event.lookupDuration += metrics.record(PipelinePhase.LOOKUP, start);
+        metrics.lookup(record.isPresent() ? PipelineMetrics.LookupOutcome.HIT : PipelineMetrics.LookupOutcome.MISS);
+        event.outcome = record.isPresent() ? DnaAnalysisEvent.DB_HIT : DnaAnalysisEvent.DB_MISS;
+        return record;
+    }
+
+    /** Inserta el registro si su clave no existe; devuelve si lo insertó este request. */
+    private boolean insertIfAbsent(DnaRecord record) {
+        try {
+            if (verdictStore.insertIfAbsent(record.getDnaHash(), record.getDnaPacked(), record.isMutant(),
+                    record.getCreatedAt()) == 0) {
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Clave {} insertada en paralelo por otro request", DnaKey.of(record.getDnaHash()));
+            return false;
+        }
+        statsService.recordNewDna(record.isMutant());
+        return true;
+    }
+
+    /** De dónde salen las búsquedas y a dónde van los registros nuevos. */
+    private interface Storage {
+        Optional<DnaRecord> find(DnaKey key, DnaAnalysisEvent event);
+
+        /** Devuelve {@code false} si la clave ya estaba guardada por otro request. */
+        boolean insert(DnaRecord record, DnaAnalysisEvent event);
+
+        /** Publica en la cache el veredicto de un registro nuevo, una vez que está escrito. */
+        void publish(DnaKey key, boolean isMutant);
+    }
+
+    /**
+     * Resolución de un lote. Las búsquedas de las claves del lote se responden con lo que trajeron
+     * las consultas IN (las demás, como la clave SHA-256 de una colisión, van a la base de a una) y
+     * los registros nuevos se juntan hasta {@link #flush}, que recién entonces publica sus veredictos
+     * en la cache y sus claves en el filtro: si la escritura falla, ninguno de los dos queda con ADN
+     * que no están guardados. {@link #resolve} se puede llamar desde varios hilos a la vez.
+     */
+    public final class Batch implements Storage {
+
+        /** Claves cubiertas por las consultas IN, incluidas las que el filtro descartó. */
+        private final Set<DnaKey> looked = new HashSet<>();
+        private final Map<DnaKey, DnaRecord> found = new HashMap<>();
+        private final ConcurrentLinkedQueue<DnaRecord> pending = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Map.Entry<DnaKey, Boolean>> verdicts = new ConcurrentLinkedQueue<>();
+
+        private Batch(Collection<EncodedDna> encodings) {
+            List<DnaKey> keys = new ArrayList<>(encodings.size());
+            encodings.forEach(encoded -> keys.add(encoded.getKey()));
+            prefetch(keys);
+            List<DnaKey> legacyKeys = new ArrayList<>();
+            for (EncodedDna encoded : encodings) {
+                if (encoded.getLegacyKey() != null && !found.containsKey(DnaKey.of(encoded.getKey().bytes()))) {
+                    legacyKeys.add(encoded.getLegacyKey());
+                }
+            }
+            prefetch(legacyKeys);
+        }
+
+        /** Veredicto de un ADN del lote que no estaba en la cache. */
+        public boolean resolve(EncodedDna encoded) {
+            return analyze(encoded, new DnaAnalysisEvent(), this);
+        }
+
+        /**
+         * Guarda en un solo lote (o encola, en modo write-behind) los ADN nuevos del lote y después
+         * publica sus veredictos en la cache y sus claves en el filtro.
+         */
+        public void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<DnaRecord> records = new ArrayList<>(pending);
+            long start = metrics.start();
+            if (dnaRecordWriter.isWriteBehind()) {
+                records.forEach(dnaRecordWriter::enqueue);
+            } else {
+                int inserted = dnaRecordWriter.insertAll(records);
+                log.debug("Lote: {} ADN nuevos, {} insertados", records.size(), inserted);
+            }
+            metrics.record(PipelinePhase.INSERT, start);
+            verdicts.forEach(verdict -> {
+                dnaKeyFilter.put(verdict.getKey());
+                verdictCache.put(verdict.getKey(), verdict.getValue());
+            });
+        }
+
+        @Override
+        public Optional<DnaRecord> find(DnaKey key, DnaAnalysisEvent event) {
+            DnaKey stored = DnaKey.of(key.bytes());
+            if (!looked.contains(stored)) {
+                return findOne(key, event);
+            }
+            DnaRecord record = found.get(stored);
+            if (record != null) {
+                event.outcome = DnaAnalysisEvent.DB_HIT;
+            } else if (dnaKeyFilter.mightContain(key)) {
+                event.outcome = DnaAnalysisEvent.DB_MISS;
+            }
+            return Optional.ofNullable(record);
+        }
+
+        /** Los registros se escriben en {@link #flush}; los ya guardados los descarta {@code insertAll}. */
+        @Override
+        public boolean insert(DnaRecord record, DnaAnalysisEvent event) {
+            pending.add(record);
+            return true;
+        }
+
+        @Override
+        public void publish(DnaKey key, boolean isMutant) {
+            verdicts.add(new AbstractMap.SimpleImmutableEntry<>(key, isMutant));
+        }
+
+        /**
+         * Consultas IN de las claves todavía no buscadas, de a {@value #IN_CLAUSE_CHUNK}. Cada clave
+         * cuenta como acierto o fallo según lo que devolvió la consulta para ella.
+         */
+        private void prefetch(List<DnaKey> keys) {
+            List<byte[]> hashes = new ArrayList<>(keys.size());
+            for (DnaKey key : keys) {
+                DnaKey stored = DnaKey.of(key.bytes());
+                if (!looked.add(stored)) {
+                    continue;
+                }
+                if (dnaKeyFilter.mightContain(key)) {
+                    hashes.add(stored.bytes());
+                } else {
+                    metrics.lookup(PipelineMetrics.LookupOutcome.SKIPPED);
+                }
+            }
+            for (int from = 0; from < hashes.size(); from += IN_CLAUSE_CHUNK) {
+                List<byte[]> chunk = hashes.subList(from, Math.min(hashes.size(), from + IN_CLAUSE_CHUNK));
+                long start = metrics.start();
+                List<DnaRecord> records = verdictStore.findByDnaHashIn(chunk);
+                metrics.record(PipelinePhase.LOOKUP, start);
+                for (DnaRecord record : records) {
+                    found.put(DnaKey.of(record.getDnaHash()), record);
+                }
+                for (byte[] hash : chunk) {
+                    metrics.lookup(found.containsKey(DnaKey.of(hash))
+                            ? PipelineMetrics.LookupOutcome.HIT : PipelineMetrics.LookupOutcome.MISS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.service;
+
+import lombok.Getter;
+import org.example.service.detection.PackedDnaMatrix;
+
+/**
+ * Resultado de la etapa de validación: la matriz empaquetada y su clave de deduplicación,
+ * obtenidas en un único recorrido de las filas por {@link DnaKeyFactory#tryEncode}. Se propaga
+ * hasta el detector para que nadie vuelva a leer los strings del request.
+ */
+@Getter
+public final class EncodedDna {
+
+    private final PackedDnaMatrix matrix;
+    private final DnaKey key;
+    /** Clave sin canonizar, para encontrar registros guardados antes de la canonización; puede ser null. */
+    private final DnaKey legacyKey;
+
+    EncodedDna(PackedDnaMatrix matrix, DnaKey key) {
+        this(matrix, key, null);
+    }
+
+    EncodedDna(PackedDnaMatrix matrix, DnaKey key, DnaKey legacyKey) {
+        this.matrix = matrix;
+        this.key = key;
+        this.legacyKey = legacyKey;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.service;
+
+import org.example.service.detection.PackedDnaMatrix;
+
+/**
+ * MurmurHash3 x64 de 128 bits aplicado directamente a las palabras de una matriz empaquetada,
+ * leídas como bytes little-endian. No concatena ni copia las filas. También expone un hash de 64
+ * bits de bytes arbitrarios para {@link ScalableBloomFilter}.
+ */
+final class Murmur3 {
+
+    private static final long C1 = 0x87c3_7b91_1142_53d5L;
+    private static final long C2 = 0x4cf5_ad43_2745_937fL;
+
+    private Murmur3() {
+    }
+
+    /** Escribe los 16 bytes del hash en {@code out} a partir de {@code offset}; la semilla es N. */
+    static void hash128(PackedDnaMatrix matrix, byte[] out, int offset) {
+        final int n = matrix.size();
+        final int wordsPerRow = matrix.wordsPerRow();
+        long h1 = n;
+        long h2 = n;
+        long pending = 0;
+        boolean hasPending = false;
+        for (int row = 0; row < n; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                final long word = matrix.word(row, w);
+                if (!hasPending) {
+                    pending = word;
+                    hasPending = true;
+                    continue;
+                }
+                h1 ^= mixK1(pending);
+                h1 = Long.rotateLeft(h1, 27) + h2;
+                h1 = h1 * 5 + 0x52dc_e729;
+                h2 ^= mixK2(word);
+                h2 = Long.rotateLeft(h2, 31) + h1;
+                h2 = h2 * 5 + 0x3849_5ab5;
+                hasPending = false;
+            }
+        }
+        if (hasPending) {
+            h1 ^= mixK1(pending);
+        }
+        final long length = 8L * n * wordsPerRow;
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        writeLong(out, offset, h1);
+        writeLong(out, offset + 8, h2);
+    }
+
+    /**
+     * Hash de 64 bits de una clave ya calculada, con la misma mezcla de 64 bits; lo usa el filtro
+     * de claves, que no puede suponer bytes uniformes porque las claves exactas no son un digest.
+     */
+    static long hash64(byte[] bytes) {
+        long h = bytes.length;
+        int i = 0;
+        for (; i + 8 <= bytes.length; i += 8) {
+            h ^= mixK1(readLong(bytes, i, 8));
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dc_e729;
+        }
+        if (i < bytes.length) {
+            h ^= mixK1(readLong(bytes, i, bytes.length - i));
+        }
+        return fmix(h ^ bytes.length);
+    }
+
+    /** Segundo hash independiente a partir del primero, para el doble hashing del filtro. */
+    static long rehash(long h) {
+        return fmix(h ^ C2);
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51_afd7_ed55_8ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ce_b9fe_1a85_ec53L;
+        return k ^ (k >>> 33);
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (bytes[offset + i] & 0xffL) << (8 * i);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] out, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.config.MutantProperties;
+import org.example.dto.DnaBatchRequest;
+import org.example.dto.DnaBatchResult;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Análisis de varias matrices en un solo request: valida cada una por separado, resuelve los
+ * hashes conocidos con una consulta IN, detecta los desconocidos en paralelo sobre un
+ * ForkJoinPool acotado e inserta los registros nuevos en un único lote. La resolución de cada
+ * ADN (colisiones incluidas) es la de {@link DnaResolver}.
+ */
+@Service
+public class MutantBatchService {
+
+    static final String INVALID_DNA_MESSAGE = "Secuencia de ADN inválida";
+
+    private final VerdictCache verdictCache;
+    private final DnaKeyFactory dnaKeyFactory;
+    private final DnaResolver dnaResolver;
+    private final PipelineMetrics metrics;
+    private final ForkJoinPool detectionPool;
+
+    public MutantBatchService(VerdictCache verdictCache, DnaKeyFactory dnaKeyFactory, DnaResolver dnaResolver,
+                              PipelineMetrics metrics, MutantProperties properties) {
+        this.verdictCache = verdictCache;
+        this.dnaKeyFactory = dnaKeyFactory;
+        this.dnaResolver = dnaResolver;
+        this.metrics = metrics;
+        this.detectionPool = new ForkJoinPool(properties.getBatch().getParallelism());
+    }
+
+    /** Devuelve un resultado por matriz, en el mismo orden que la entrada. */
+    public List<DnaBatchResult> analyzeBatch(List<String[]> dnas) {
+        List<EncodedDna> encodings = new ArrayList<>(dnas.size());
+        for (String[] dna : dnas) {
+            long start = metrics.start();
+            encodings.add(dnaKeyFactory.tryEncode(dna));
+            metrics.record(PipelinePhase.ENCODE, start);
+        }
+        return analyzeEncoded(encodings);
+    }
+
+    /**
+     * Lote en el formato {@value PackedDnaFormat#MEDIA_TYPE}. Un ADN inválido se informa por índice
+     * como en JSON; una trama cortada, con N fuera de rango o con bytes de más rechaza el lote con
+     * {@code InvalidPackedDnaException}.
+     */
+    public List<DnaBatchResult> analyzePackedBatch(InputStream body) throws IOException {
+        PackedDnaFormat.Reader reader = new PackedDnaFormat.Reader(body, dnaKeyFactory);
+        final int count = reader.readCount(DnaBatchRequest.MAX_ITEMS);
+        List<EncodedDna> encodings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = metrics.start();
+            encodings.add(reader.readMatrix(false));
+            metrics.record(PipelinePhase.ENCODE, start);
+        }
+        reader.expectEnd();
+        return analyzeEncoded(encodings);
+    }
+
+    /** Resultado por matriz ya codificada; las null son ADN inválidos. */
+    private List<DnaBatchResult> analyzeEncoded(List<EncodedDna> encodedDnas) {
+        final int size = encodedDnas.size();
+        DnaBatchResult[] results = new DnaBatchResult[size];
+        // clave desconocida -> índices de la entrada con ese ADN
+        Map<DnaKey, List<Integer>> unknown = new LinkedHashMap<>();
+        Map<DnaKey, EncodedDna> encodings = new LinkedHashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            EncodedDna encoded = encodedDnas.get(i);
+            if (encoded == null) {
+                results[i] = DnaBatchResult.invalid(i, INVALID_DNA_MESSAGE);
+                continue;
+            }
+            metrics.matrixSize(encoded.getMatrix().size());
+            Boolean cachedVerdict = verdictCache.getIfPresent(encoded.getKey());
+            if (cachedVerdict != null) {
+                results[i] = DnaBatchResult.verdict(i, cachedVerdict);
+            } else {
+                encodings.putIfAbsent(encoded.getKey(), encoded);
+                unknown.computeIfAbsent(encoded.getKey(), key -> new ArrayList<>(1)).add(i);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            resolveUnknown(encodings, unknown, results);
+        }
+        for (DnaBatchResult result : results) {
+            if (result.getMutant() != null) {
+                metrics.verdict(result.getMutant());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Resuelve en paralelo los ADN que no estaban en la cache, con el mismo camino que un request
+     * individual ({@link DnaResolver}): las búsquedas salen de las consultas IN del lote y los
+     * registros nuevos se guardan juntos al final.
+     */
+    private void resolveUnknown(Map<DnaKey, EncodedDna> encodings, Map<DnaKey, List<Integer>> unknown,
+                                DnaBatchResult[] results) {
+        DnaResolver.Batch batch = dnaResolver.batch(encodings.values());
+        List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(encodings.size());
+        for (EncodedDna encoded : encodings.values()) {
+            tasks.add(detectionPool.submit(() -> batch.resolve(encoded)));
+        }
+        int task = 0;
+        for (DnaKey key : encodings.keySet()) {
+            fill(results, unknown.get(key), tasks.get(task++).join());
+        }
+        batch.flush();
+    }
+
+    private static void fill(DnaBatchResult[] results, List<Integer> indexes, boolean isMutant) {
+        for (int index : indexes) {
+            results[index] = DnaBatchResult.verdict(index, isMutant);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        detectionPool.shutdown();
+    }
+}
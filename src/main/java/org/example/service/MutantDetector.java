@@ -1,88 +1,92 @@
 package org.example.service;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
 import lombok.extern.slf4j.Slf4j;
-import org.example.validation.ValidDnaSequenceValidator;
+import org.example.config.MutantProperties;
+import org.example.service.detection.DetectionEngine;
+import org.example.service.detection.DetectionMode;
+import org.example.service.detection.PackedDnaMatrix;
+import org.example.service.detection.ParallelDetectionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MutantDetector {
-    private static final int SEQUENCE_LENGTH = 4;
-    private static final Set<Character> VALID_BASES = Set.of('A', 'T', 'C', 'G');
-    public boolean isMutant(String[] dna) {
-        if (!ValidDnaSequenceValidator.isValidDna(dna)) {
-            return false;
-        }
-        final int n = dna.length;
-        char[][] matrix = new char [n][];
-        for (int i = 0; i < n; i++) {
-            matrix[i] = dna[i].toCharArray();
-        }
-        int sequenceCount = 0;
-        final int SEQUENCE_LENGTH = 4;
-        for (int row = 0; row < n; row++) {
-            for (int col = 0; col < n; col++) {
-                if (col <= n - SEQUENCE_LENGTH) {  // col <= n-4
-                    if (checkHorizontal(matrix, row, col)) {
-                        sequenceCount++;
-                        if (sequenceCount > 1) return true;  // ← EARLY TERMINATION
-                    }
-                }
-                if (row <= n - SEQUENCE_LENGTH) {
-                    if (checkVertical(matrix, row, col)) {
-                        sequenceCount++;
-                        if (sequenceCount > 1) return true;
-                    }
-                }
-                if (row >= SEQUENCE_LENGTH - 1 && col <= n - SEQUENCE_LENGTH) {
-                    if (checkDiagonalAscending(matrix, row, col)) {
-                        sequenceCount++;
-                        if (sequenceCount > 1) return true;
-                    }
-                }
-                if (row <= n - SEQUENCE_LENGTH && col <= n - SEQUENCE_LENGTH) {
-                    if (checkDiagonalDescending(matrix, row, col)) {
-                        sequenceCount++;
-                        if (sequenceCount > 1) return true;
-                    }
-                }
-            }
-        }
-        return false;
+    private static final int SEQUENCES_FOR_MUTANT = 2;
+
+    static {
+        // la primera instancia de un evento sin registrar tarda cientos de ms aunque JFR esté apagado
+        FlightRecorder.register(DetectionEvent.class);
     }
-    private boolean checkHorizontal(char[][] matrix, int row, int col) {
-        final char base = matrix[row][col];
-        boolean found = matrix[row][col + 1] == base &&
-                matrix[row][col + 2] == base &&
-                matrix[row][col + 3] == base;
-        if(found) log.debug("Secuencia horizontal encontrada en fila {} col {}", row, col);
-        return found;
+
+    private final DetectionMode mode;
+    private final DetectionEngine engine;
+    private final int parallelThreshold;
+
+    public MutantDetector() {
+        this(DetectionMode.SCALAR);
     }
-    private boolean checkVertical(char[][] matrix, int row, int col) {
-        final char base = matrix[row][col];
-        boolean found = matrix[row + 1][col] == base &&
-                matrix[row + 2][col] == base &&
-                matrix[row + 3][col] == base;
-        if(found) log.debug("Secuencia vertical encontrada en fila {} col {}", row, col);
-        return found;
+
+    @Autowired
+    public MutantDetector(MutantProperties properties) {
+        this(properties.getDetector().getMode(), properties.getDetector().getParallelThreshold(),
+                properties.getDetector().getParallelism());
     }
-    private boolean checkDiagonalAscending(char[][] matrix, int row, int col) {
-        final char base = matrix[row][col];
-        boolean found = matrix[row - 1][col + 1] == base &&
-                matrix[row - 2][col + 2] == base &&
-                matrix[row - 3][col + 3] == base;
-        if(found) log.debug("Secuencia diagonal ascendente encontrada en fila {} col {}", row, col);
-        return found;
+
+    public MutantDetector(DetectionMode mode) {
+        this(mode, 0, 1);
+    }
+
+    /** Con {@code parallelThreshold > 0} las matrices de ese tamaño o mayores se procesan por bandas. */
+    public MutantDetector(DetectionMode mode, int parallelThreshold, int parallelism) {
+        this.mode = mode;
+        this.parallelThreshold = parallelThreshold;
+        this.engine = parallelThreshold > 0
+                ? new ParallelDetectionEngine(mode.createEngine(), parallelThreshold, parallelism)
+                : mode.createEngine();
+        log.info("Motor de detección: {} (paralelo desde N={})", mode, parallelThreshold > 0 ? parallelThreshold : "-");
     }
-    private boolean checkDiagonalDescending(char[][] matrix, int row, int col) {
-        final char base = matrix[row][col];
-        boolean found = matrix[row + 1][col + 1] == base &&
-                matrix[row + 2][col + 2] == base &&
-                matrix[row + 3][col + 3] == base;
-        if(found) log.debug("Secuencia diagonal descendente encontrada en fila {} col {}", row, col);
-        return found;
+
+    public DetectionMode getMode() {
+        return mode;
+    }
+
+    /** Apaga el pool de la detección por bandas, si la hay. */
+    @PreDestroy
+    public void shutdown() {
+        if (engine instanceof ParallelDetectionEngine parallelEngine) {
+            parallelEngine.close();
+        }
+    }
+
+    public boolean isMutant(String[] dna) {
+        PackedDnaMatrix matrix = PackedDnaMatrix.tryEncode(dna, null);
+        return matrix != null && isMutant(matrix);
+    }
+
+    /**
+     * Detecta sobre una matriz ya validada y codificada. El conteo y la fila de corte del evento
+     * salen de la misma pasada; sin una grabación activa el JIT elimina el evento.
+     */
+    public boolean isMutant(PackedDnaMatrix matrix) {
+        DetectionEvent event = new DetectionEvent();
+        event.begin();
+        final int n = matrix.size();
+        long result = engine.scan(matrix, 0, n, SEQUENCES_FOR_MUTANT);
+        event.end();
+        final int found = DetectionEngine.count(result);
+        final boolean mutant = found >= SEQUENCES_FOR_MUTANT;
+        if (event.shouldCommit()) {
+            event.matrixSize = n;
+            event.engine = mode.name();
+            event.parallel = parallelThreshold > 0 && n >= parallelThreshold;
+            event.sequencesFound = found;
+            event.earlyExitRow = DetectionEngine.exitRow(result);
+            event.mutant = mutant;
+            event.commit();
+        }
+        return mutant;
     }
 }
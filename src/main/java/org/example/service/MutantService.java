@@ -1,57 +1,90 @@
 package org.example.service;
 
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
 import lombok.RequiredArgsConstructor;
-import org.example.entity.DnaRecord;
-import org.example.exception.DnaHashCalculationException;
-import org.example.repository.DnaRecordRepository;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
 
 @Service
 @RequiredArgsConstructor
 public class MutantService {
 
-    private final MutantDetector mutantDetector;
-    private final DnaRecordRepository dnaRecordRepository;
+    static {
+        // la primera instancia de un evento sin registrar tarda cientos de ms aunque JFR esté apagado
+        FlightRecorder.register(DnaAnalysisEvent.class);
+    }
 
-    public boolean analyzeDna(String[] dna) {
+    /** Para leer el reloj en la codificación, antes de crear el evento, si hay una grabación. */
+    private static final EventType ANALYSIS_EVENT = EventType.getEventType(DnaAnalysisEvent.class);
 
-        String dnaHash = calculateHash(dna);
+    private final VerdictCache verdictCache;
+    private final DnaKeyFactory dnaKeyFactory;
+    private final DnaResolver dnaResolver;
+    private final PipelineMetrics metrics;
 
-        Optional<DnaRecord> existingRecord = dnaRecordRepository.findByDnaHash(dnaHash);
-        if (existingRecord.isPresent()) {
-            return existingRecord.get().isMutant();
+    public boolean analyzeDna(String[] dna) {
+        long start = metrics.start(ANALYSIS_EVENT.isEnabled());
+        EncodedDna encoded = dnaKeyFactory.tryEncode(dna);
+        long encodeDuration = metrics.record(PipelinePhase.ENCODE, start);
+        if (encoded == null) {
+            throw new IllegalArgumentException("Secuencia de ADN inválida");
         }
+        return analyze(encoded, encodeDuration);
+    }
 
-        boolean isMutant = mutantDetector.isMutant(dna);
-
-        DnaRecord record = new DnaRecord();
-        record.setDnaHash(dnaHash);
-        record.setMutant(isMutant);
-        dnaRecordRepository.save(record);
+    /**
+     * Analiza una matriz en el formato {@value PackedDnaFormat#MEDIA_TYPE}; una trama o un ADN
+     * inválidos lanzan {@code InvalidPackedDnaException} en la primera fila que falla.
+     */
+    public boolean analyzePacked(InputStream body) throws IOException {
+        long start = metrics.start(ANALYSIS_EVENT.isEnabled());
+        PackedDnaFormat.Reader reader = new PackedDnaFormat.Reader(body, dnaKeyFactory);
+        EncodedDna encoded = reader.readMatrix(true);
+        reader.expectEnd();
+        return analyze(encoded, metrics.record(PipelinePhase.ENCODE, start));
+    }
 
-        return isMutant;
+    /** Analiza un ADN ya validado y codificado por {@link DnaKeyFactory#tryEncode}. */
+    public boolean analyzeDna(EncodedDna encoded) {
+        return analyze(encoded, 0);
     }
 
-    private String calculateHash(String[] dna) {
-
-        String rawDna = String.join("", dna);
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] encodedhash = digest.digest(rawDna.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder(2 * encodedhash.length);
-            for (byte b : encodedhash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
+    /**
+     * El acierto en la cache, el caso más frecuente, no reserva memoria: su evento JFR no sale de
+     * este método, así que sin una grabación activa el JIT elimina la instancia. Un fallo usa un
+     * evento propio, que se pasa a la resolución y por eso sí se reserva.
+     */
+    private boolean analyze(EncodedDna encoded, long encodeDuration) {
+        final int n = encoded.getMatrix().size();
+        metrics.matrixSize(n);
+        DnaAnalysisEvent cacheEvent = new DnaAnalysisEvent();
+        cacheEvent.begin();
+        Boolean cachedVerdict = verdictCache.getIfPresent(encoded.getKey());
+        if (cachedVerdict != null) {
+            metrics.verdict(cachedVerdict);
+            if (cacheEvent.shouldCommit()) {
+                cacheEvent.matrixSize = n;
+                cacheEvent.encodeDuration = encodeDuration;
+                cacheEvent.outcome = DnaAnalysisEvent.CACHE;
+                cacheEvent.mutant = cachedVerdict;
+                cacheEvent.commit();
             }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new DnaHashCalculationException("El algoritmo SHA-256 no está disponible.", e);
+            return cachedVerdict;
         }
+
+        DnaAnalysisEvent event = new DnaAnalysisEvent();
+        event.begin();
+        boolean isMutant = dnaResolver.resolve(encoded, event);
+        metrics.verdict(isMutant);
+        if (event.shouldCommit()) {
+            event.matrixSize = n;
+            event.encodeDuration = encodeDuration;
+            event.mutant = isMutant;
+            event.commit();
+        }
+        return isMutant;
     }
-}
\ No newline at end of file
+}
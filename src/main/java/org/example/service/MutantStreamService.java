@@ -0,0 +1,198 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.example.dto.DnaBatchRequest;
+import org.example.dto.DnaBatchResult;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Análisis NDJSON de memoria constante: lee como mucho {@code chunk-size} líneas, las analiza como
+ * un lote y escribe una línea de resultado por cada una antes de leer las siguientes. Mientras se
+ * procesa un bloque no se lee más del request, así que el cliente queda frenado por TCP. Una línea
+ * más larga de lo que ocupa una matriz de {@code max-size} no se guarda: se descarta hasta el fin
+ * de línea y se informa por índice.
+ */
+@Slf4j
+@Service
+public class MutantStreamService {
+
+    static final String INVALID_LINE_MESSAGE = "Línea NDJSON inválida";
+    static final String LINE_TOO_LONG_MESSAGE = "Línea NDJSON demasiado larga";
+    private static final byte NEWLINE = '\n';
+
+    private final MutantBatchService mutantBatchService;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+    private final int maxLineLength;
+
+    public MutantStreamService(MutantBatchService mutantBatchService, ObjectMapper objectMapper,
+                               MutantProperties properties) {
+        this.mutantBatchService = mutantBatchService;
+        this.requestReader = objectMapper.readerFor(DnaLine.class);
+        this.resultWriter = objectMapper.writerFor(DnaBatchResult.class);
+        this.chunkSize = Math.min(properties.getStream().getChunkSize(), DnaBatchRequest.MAX_ITEMS);
+        this.maxLineLength = maxLineLength(properties.getStream().getMaxSize());
+    }
+
+    /**
+     * Largo de {@code {"dna":["...",...]}} con N filas de N bases, con margen para un espacio
+     * después de cada separador; una línea más larga no puede traer una matriz admitida.
+     */
+    static int maxLineLength(int maxSize) {
+        long length = (long) maxSize * (maxSize + 4) + 64;
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    /** Devuelve la cantidad de líneas analizadas. */
+    public long analyzeStream(InputStream input, OutputStream output) throws IOException {
+        LineReader reader = new LineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxLineLength);
+        List<String[]> chunk = new ArrayList<>(chunkSize);
+        // posiciones del bloque con líneas ilegibles o demasiado largas
+        BitSet unreadable = new BitSet(chunkSize);
+        BitSet tooLong = new BitSet(chunkSize);
+        long processed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (reader.truncated()) {
+                tooLong.set(chunk.size());
+                chunk.add(null);
+            } else if (line.isBlank()) {
+                continue;
+            } else {
+                chunk.add(parse(line, chunk.size(), unreadable));
+            }
+            if (chunk.size() == chunkSize) {
+                processed += writeChunk(chunk, unreadable, tooLong, processed, output);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processed += writeChunk(chunk, unreadable, tooLong, processed, output);
+        }
+        log.debug("Stream NDJSON terminado: {} líneas", processed);
+        return processed;
+    }
+
+    private String[] parse(String line, int position, BitSet unreadable) {
+        try {
+            DnaLine request = requestReader.readValue(line);
+            return request.dna();
+        } catch (JsonProcessingException e) {
+            unreadable.set(position);
+            return null;
+        }
+    }
+
+    /**
+     * Una línea del stream. No usa {@code DnaRequest}, que rechaza el ADN inválido al leerlo: acá
+     * una línea con JSON válido y ADN inválido se informa como ADN inválido, no como línea ilegible.
+     */
+    private record DnaLine(String[] dna) {
+    }
+
+    private int writeChunk(List<String[]> chunk, BitSet unreadable, BitSet tooLong, long offset,
+                           OutputStream output) throws IOException {
+        List<DnaBatchResult> results = mutantBatchService.analyzeBatch(chunk);
+        for (int i = 0; i < results.size(); i++) {
+            DnaBatchResult result = results.get(i);
+            DnaBatchResult line;
+            if (tooLong.get(i)) {
+                line = DnaBatchResult.invalid((int) (offset + i), LINE_TOO_LONG_MESSAGE);
+            } else if (unreadable.get(i)) {
+                line = DnaBatchResult.invalid((int) (offset + i), INVALID_LINE_MESSAGE);
+            } else {
+                line = new DnaBatchResult((int) (offset + i), result.getMutant(), result.getError());
+            }
+            output.write(resultWriter.writeValueAsBytes(line));
+            output.write(NEWLINE);
+        }
+        output.flush();
+        int size = chunk.size();
+        chunk.clear();
+        unreadable.clear();
+        tooLong.clear();
+        return size;
+    }
+
+    /**
+     * Lectura por líneas como {@code BufferedReader.readLine} (fin de línea {@code \n} o
+     * {@code \r\n}), pero sin guardar más de {@code maxLength} caracteres por línea: el resto se
+     * descarta y {@link #truncated} lo indica.
+     */
+    static final class LineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /** La próxima línea, cortada en {@code maxLength}, o {@code null} al final de la entrada. */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return line.isEmpty() && !truncated ? null : finish();
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        /** Si la última línea leída pasaba de {@code maxLength}. */
+        boolean truncated() {
+            return truncated;
+        }
+
+        private void append(int from, int to) {
+            int room = maxLength - line.length();
+            if (to - from > room) {
+                truncated = true;
+                to = from + room;
+            }
+            line.append(buffer, from, to - from);
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+    }
+}
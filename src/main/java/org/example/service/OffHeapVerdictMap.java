@@ -0,0 +1,277 @@
+package org.example.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa clave de ADN -> veredicto fuera del heap, para millones de entradas sin objetos por entrada
+ * que recorra el GC. Cada slot ocupa {@code 1 + keyWords} longs: una palabra de control con el
+ * veredicto, el tag, el largo de la clave y 48 bits de su hash, seguida de los bytes de la clave
+ * después del tag en 2 o 4 longs (claves Murmur3/exactas chicas o SHA-256/exactas hasta N=11).
+ *
+ * <p>Direccionamiento abierto con sondeo lineal, repartido en segmentos con su propio
+ * {@link StampedLock}: las escrituras bloquean solo su segmento, que crece por separado sin detener
+ * a los demás, y las lecturas son optimistas (sin lock salvo que coincidan con una escritura en el
+ * mismo segmento).
+ */
+final class OffHeapVerdictMap {
+
+    private static final VarHandle KEY_WORD = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final double MAX_LOAD = 0.75;
+    private static final int MIN_SEGMENT_SLOTS = 64;
+
+    private static final long OCCUPIED = 1L;
+    private static final long MUTANT = 1L << 1;
+    private static final int LENGTH_SHIFT = 2;
+    private static final int TAG_SHIFT = 8;
+    private static final long HASH_MASK = 0xffff_ffff_ffff_0000L;
+
+    /** Resultado de {@link #get} para una clave ausente. */
+    static final int ABSENT = -1;
+
+    private final int keyWords;
+    private final int slotBytes;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int maxSegmentSlots;
+
+    /**
+     * @param keyWords    2 para claves de hasta 17 bytes (tag incluido) o 4 para hasta 33
+     * @param concurrency cantidad mínima de segmentos; se redondea a potencia de dos
+     */
+    OffHeapVerdictMap(int keyWords, long expectedEntries, int concurrency) {
+        if (keyWords != 2 && keyWords != 4) {
+            throw new IllegalArgumentException("keyWords debe ser 2 o 4: " + keyWords);
+        }
+        this.keyWords = keyWords;
+        this.slotBytes = (1 + keyWords) * Long.BYTES;
+        this.maxSegmentSlots = Integer.highestOneBit(Integer.MAX_VALUE / slotBytes);
+        final int segmentCount = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segments = new Segment[segmentCount];
+        final long perSegment = Math.max(MIN_SEGMENT_SLOTS, (long) Math.ceil(expectedEntries / MAX_LOAD / segmentCount));
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((int) Math.min(maxSegmentSlots, Long.highestOneBit(perSegment - 1) << 1));
+        }
+    }
+
+    /** Ancho de slot suficiente para las claves del algoritmo y de las matrices exactas hasta {@code exactMaxSize}. */
+    static int keyWordsFor(DnaHashAlgorithm algorithm, int exactMaxSize) {
+        final int exactKeyLength = 2 + (2 * exactMaxSize * exactMaxSize + 7) / 8;
+        return Math.max(algorithm.getKeyLength(), exactKeyLength) <= 1 + 2 * Long.BYTES ? 2 : 4;
+    }
+
+    /** Si una clave de este largo entra en los slots del mapa. */
+    boolean fits(byte[] key) {
+        return key.length >= 1 && key.length <= 1 + keyWords * Long.BYTES;
+    }
+
+    /** 1 si es mutante, 0 si es humano, {@link #ABSENT} si la clave no está. */
+    int get(byte[] key) {
+        if (!fits(key)) {
+            return ABSENT;
+        }
+        final long hash = hash(key);
+        final Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        int verdict = segment.find(key, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                verdict = segment.find(key, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return verdict;
+    }
+
+    /** Guarda el veredicto; devuelve {@code false} si la clave no entra en los slots. */
+    boolean put(byte[] key, boolean isMutant) {
+        if (!fits(key)) {
+            return false;
+        }
+        final long hash = hash(key);
+        final Segment segment = segmentFor(hash);
+        final long stamp = segment.lock.writeLock();
+        try {
+            segment.insert(key, hash, isMutant);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+        return true;
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.table.capacity * slotBytes;
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[segments.length == 1 ? 0 : (int) (hash >>> segmentShift)];
+    }
+
+    /** Palabra {@code i} de la clave después del tag, little-endian y completada con ceros. */
+    private static long keyWord(byte[] key, int i) {
+        final int from = 1 + i * Long.BYTES;
+        if (from + Long.BYTES <= key.length) {
+            return (long) KEY_WORD.get(key, from);
+        }
+        long word = 0;
+        for (int b = key.length - 1; b >= from; b--) {
+            word = (word << 8) | (key[b] & 0xff);
+        }
+        return word;
+    }
+
+    /**
+     * Mezcla las palabras de la clave. Los bits altos eligen el segmento y los bits desde el 16 el
+     * slot, que así se puede recalcular desde la palabra de control al crecer.
+     */
+    private long hash(byte[] key) {
+        long h = key.length * 0x9e37_79b9_7f4a_7c15L ^ key[0];
+        for (int i = 0; i < keyWords; i++) {
+            h = Long.rotateLeft(h ^ keyWord(key, i) * 0x87c3_7b91_1142_53d5L, 31) * 0x4cf5_ad43_2745_937fL;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51_afd7_ed55_8ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ce_b9fe_1a85_ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private long control(byte[] key, long hash) {
+        return OCCUPIED | ((long) key.length << LENGTH_SHIFT) | ((key[0] & 0xffL) << TAG_SHIFT) | (hash & HASH_MASK);
+    }
+
+    private final class Segment {
+        final StampedLock lock = new StampedLock();
+        volatile Table table;
+        volatile int size;
+
+        Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        int find(byte[] key, long hash) {
+            final Table t = table;
+            final long expected = control(key, hash);
+            for (int slot = t.home(hash), probes = 0; probes < t.capacity; slot = (slot + 1) & t.mask, probes++) {
+                final long control = t.control(slot);
+                if ((control & OCCUPIED) == 0) {
+                    return ABSENT;
+                }
+                if ((control & ~MUTANT) == expected && t.keyEquals(slot, key)) {
+                    return (control & MUTANT) != 0 ? 1 : 0;
+                }
+            }
+            return ABSENT;
+        }
+
+        /** Solo con el lock de escritura del segmento. */
+        void insert(byte[] key, long hash, boolean isMutant) {
+            if (size + 1 > table.capacity * MAX_LOAD) {
+                grow();
+            }
+            final Table t = table;
+            final long expected = control(key, hash);
+            int slot = t.home(hash);
+            while (true) {
+                final long control = t.control(slot);
+                if ((control & OCCUPIED) == 0) {
+                    break;
+                }
+                if ((control & ~MUTANT) == expected && t.keyEquals(slot, key)) {
+                    t.setControl(slot, isMutant ? expected | MUTANT : expected);
+                    return;
+                }
+                slot = (slot + 1) & t.mask;
+            }
+            for (int i = 0; i < keyWords; i++) {
+                t.setKeyWord(slot, i, keyWord(key, i));
+            }
+            t.setControl(slot, isMutant ? expected | MUTANT : expected);
+            size = size + 1;
+        }
+
+        /** Duplica solo este segmento; se publica cuando la tabla nueva está completa. */
+        private void grow() {
+            final Table old = table;
+            if (old.capacity >= maxSegmentSlots) {
+                throw new IllegalStateException("Un segmento del mapa de veredictos llegó a su capacidad máxima");
+            }
+            final Table grown = new Table(old.capacity * 2);
+            for (int slot = 0; slot < old.capacity; slot++) {
+                final long control = old.control(slot);
+                if ((control & OCCUPIED) == 0) {
+                    continue;
+                }
+                int target = grown.home(control);
+                while ((grown.control(target) & OCCUPIED) != 0) {
+                    target = (target + 1) & grown.mask;
+                }
+                for (int i = 0; i < keyWords; i++) {
+                    grown.setKeyWord(target, i, old.keyWord(slot, i));
+                }
+                grown.setControl(target, control);
+            }
+            table = grown;
+        }
+    }
+
+    private final class Table {
+        final ByteBuffer slots;
+        final int capacity;
+        final int mask;
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.slots = ByteBuffer.allocateDirect(capacity * slotBytes).order(ByteOrder.nativeOrder());
+        }
+
+        /** Slot inicial; sirve tanto el hash como la palabra de control, que guarda sus bits altos. */
+        int home(long hashOrControl) {
+            return (int) (hashOrControl >>> 16) & mask;
+        }
+
+        long control(int slot) {
+            return slots.getLong(slot * slotBytes);
+        }
+
+        void setControl(int slot, long control) {
+            slots.putLong(slot * slotBytes, control);
+        }
+
+        long keyWord(int slot, int i) {
+            return slots.getLong(slot * slotBytes + (1 + i) * Long.BYTES);
+        }
+
+        void setKeyWord(int slot, int i, long word) {
+            slots.putLong(slot * slotBytes + (1 + i) * Long.BYTES, word);
+        }
+
+        boolean keyEquals(int slot, byte[] key) {
+            for (int i = 0; i < keyWords; i++) {
+                if (keyWord(slot, i) != OffHeapVerdictMap.keyWord(key, i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
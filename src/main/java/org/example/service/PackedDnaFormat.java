@@ -0,0 +1,164 @@
+package org.example.service;
+
+import org.example.exception.InvalidPackedDnaException;
+import org.example.service.detection.PackedDnaMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formato binario {@value #MEDIA_TYPE} de {@code POST /mutant} y {@code POST /mutant/batch}, para
+ * clientes internos con mucho volumen. Una matriz es N como entero big-endian de 4 bytes seguido de
+ * N filas de {@code (N + 3) / 4} bytes: 2 bits por base (A=0, C=1, G=2, T=3), la primera base en los
+ * bits bajos de cada byte y los bits que sobran en el último byte de la fila en 0. Un lote es la
+ * cantidad de matrices (4 bytes) seguida de las matrices.
+ *
+ * <p>Ocupa la cuarta parte que el JSON con una cadena por fila. Como cualquier par de bits es una
+ * base, no hay alfabeto que validar; las filas se copian del request a las palabras de la matriz
+ * sin pasar por caracteres.
+ */
+public final class PackedDnaFormat {
+
+    public static final String MEDIA_TYPE = "application/x-dna-packed";
+    /** Mayor N aceptado en la trama. */
+    public static final int MAX_SIZE = 1 << 16;
+
+    static final String INVALID_DNA_MESSAGE = "Secuencia de ADN inválida";
+
+    private PackedDnaFormat() {
+    }
+
+    /** Trama de una matriz ya validada; referencia para los clientes del formato. */
+    public static byte[] frame(String[] dna) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeMatrix(dna, out);
+        return out.toByteArray();
+    }
+
+    /** Trama de un lote de matrices ya validadas. */
+    public static byte[] batchFrame(List<String[]> dnas) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(dnas.size(), out);
+        for (String[] dna : dnas) {
+            writeMatrix(dna, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeMatrix(String[] dna, ByteArrayOutputStream out) {
+        final int n = dna.length;
+        writeInt(n, out);
+        byte[] row = new byte[PackedDnaMatrix.packedRowBytes(n)];
+        for (String bases : dna) {
+            if (bases.length() != n) {
+                throw new IllegalArgumentException(INVALID_DNA_MESSAGE);
+            }
+            Arrays.fill(row, (byte) 0);
+            for (int col = 0; col < n; col++) {
+                final int code = PackedDnaMatrix.code(bases.charAt(col));
+                if (code < 0) {
+                    throw new IllegalArgumentException(INVALID_DNA_MESSAGE);
+                }
+                final int shift = 2 * (col % PackedDnaMatrix.BASES_PER_BYTE);
+                row[col / PackedDnaMatrix.BASES_PER_BYTE] |= (byte) (code << shift);
+            }
+            out.write(row, 0, row.length);
+        }
+    }
+
+    private static void writeInt(int value, ByteArrayOutputStream out) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Lectura de tramas desde el body del request. Las filas se leen de a una a un buffer del
+     * lector y se codifican antes de leer la siguiente; nunca se guarda el body completo.
+     */
+    public static final class Reader {
+
+        private final InputStream input;
+        private final DnaKeyFactory dnaKeyFactory;
+        private final byte[] header = new byte[Integer.BYTES];
+        private byte[] row = new byte[0];
+
+        public Reader(InputStream input, DnaKeyFactory dnaKeyFactory) {
+            this.input = input;
+            this.dnaKeyFactory = dnaKeyFactory;
+        }
+
+        /** Cantidad de matrices de un lote, entre 1 y {@code max}. */
+        public int readCount(int max) throws IOException {
+            final int count = readInt();
+            if (count == 0) {
+                throw new InvalidPackedDnaException("El lote no tiene secuencias");
+            }
+            if (count < 0 || count > max) {
+                throw new InvalidPackedDnaException("El lote admite como máximo " + max + " secuencias");
+            }
+            return count;
+        }
+
+        /**
+         * Lee una matriz. Con {@code failFast} un ADN inválido (N = 0 o bits de relleno en 1) corta
+         * la lectura en esa fila; si no, se terminan de leer sus filas para seguir con la matriz
+         * siguiente y se devuelve null. Una trama cortada o con N fuera de rango siempre lanza
+         * {@link InvalidPackedDnaException}.
+         */
+        public EncodedDna readMatrix(boolean failFast) throws IOException {
+            final int n = readInt();
+            if (n < 0 || n > MAX_SIZE) {
+                throw new InvalidPackedDnaException("N fuera de rango en la trama de ADN empaquetado: "
+                        + Integer.toUnsignedString(n));
+            }
+            if (n == 0) {
+                return rejectOrSkip(failFast);
+            }
+            final int rowLength = PackedDnaMatrix.packedRowBytes(n);
+            if (row.length < rowLength) {
+                row = new byte[rowLength];
+            }
+            DnaKeyFactory.RowEncoder encoder = dnaKeyFactory.rowEncoder(n);
+            boolean valid = true;
+            for (int r = 0; r < n; r++) {
+                readFully(row, rowLength);
+                if (valid && !encoder.addPackedRow(row, 0)) {
+                    rejectOrSkip(failFast);
+                    valid = false;
+                }
+            }
+            return valid ? encoder.finish() : null;
+        }
+
+        /** Verifica que no queden bytes después de la última matriz. */
+        public void expectEnd() throws IOException {
+            if (input.read() != -1) {
+                throw new InvalidPackedDnaException("Bytes de más después de la trama de ADN empaquetado");
+            }
+        }
+
+        /** Lanza con {@code failFast}; si no, null para que el ADN se informe como inválido. */
+        private static EncodedDna rejectOrSkip(boolean failFast) {
+            if (failFast) {
+                throw new InvalidPackedDnaException(INVALID_DNA_MESSAGE);
+            }
+            return null;
+        }
+
+        private int readInt() throws IOException {
+            readFully(header, Integer.BYTES);
+            return (header[0] & 0xff) << 24 | (header[1] & 0xff) << 16 | (header[2] & 0xff) << 8 | (header[3] & 0xff);
+        }
+
+        private void readFully(byte[] buffer, int length) throws IOException {
+            if (input.readNBytes(buffer, 0, length) < length) {
+                throw new InvalidPackedDnaException("Trama de ADN empaquetado incompleta");
+            }
+        }
+    }
+}
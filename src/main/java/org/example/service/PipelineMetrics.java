@@ -0,0 +1,156 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas del pipeline de análisis: un timer con percentiles por {@link PipelinePhase}, la
+ * distribución del tamaño N de las matrices, veredictos y resultados de la búsqueda en la base.
+ * Todos los medidores se registran al construir; en el camino del request solo se leen de
+ * arreglos, sin armar tags. Desactivadas, {@link #start()} devuelve 0 sin leer el reloj y el
+ * resto de los métodos retorna enseguida, salvo que haya una medición de {@link RequestTimings}
+ * abierta para el header {@code Server-Timing}.
+ */
+@Slf4j
+@Component
+public class PipelineMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    /** Resultado de la búsqueda por clave en la base de datos. */
+    public enum LookupOutcome {
+        HIT, MISS,
+        /** El filtro de claves descartó la búsqueda. */
+        SKIPPED
+    }
+
+    private final boolean enabled;
+    private final Timer[] phaseTimers;
+    private final DistributionSummary matrixSize;
+    private final Counter mutantVerdicts;
+    private final Counter humanVerdicts;
+    private final Counter[] lookupCounters;
+
+    @Autowired
+    public PipelineMetrics(ObjectProvider<MeterRegistry> registry, MutantProperties properties) {
+        this(properties.getMetrics().isEnabled() ? registry.getIfAvailable() : null);
+    }
+
+    /** Con {@code registry == null} las métricas quedan desactivadas. */
+    public PipelineMetrics(MeterRegistry registry) {
+        this.enabled = registry != null;
+        if (!enabled) {
+            this.phaseTimers = null;
+            this.matrixSize = null;
+            this.mutantVerdicts = null;
+            this.humanVerdicts = null;
+            this.lookupCounters = null;
+            log.info("Métricas del pipeline desactivadas");
+            return;
+        }
+        PipelinePhase[] phases = PipelinePhase.values();
+        this.phaseTimers = new Timer[phases.length];
+        for (PipelinePhase phase : phases) {
+            phaseTimers[phase.ordinal()] = Timer.builder("mutant.pipeline.phase")
+                    .description("Duración de cada fase del análisis de ADN")
+                    .tag("phase", phase.tag())
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        this.matrixSize = DistributionSummary.builder("mutant.dna.size")
+                .description("Tamaño N de las matrices analizadas")
+                .baseUnit("bases")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.mutantVerdicts = verdictCounter(registry, "mutant");
+        this.humanVerdicts = verdictCounter(registry, "human");
+        LookupOutcome[] outcomes = LookupOutcome.values();
+        this.lookupCounters = new Counter[outcomes.length];
+        for (LookupOutcome outcome : outcomes) {
+            lookupCounters[outcome.ordinal()] = Counter.builder("mutant.db.lookups")
+                    .description("Búsquedas por clave en la base de datos según su resultado")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    public static PipelineMetrics disabled() {
+        return new PipelineMetrics((MeterRegistry) null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marca de tiempo para {@link #record}; 0 si las métricas están desactivadas y no hay una
+     * medición de {@link RequestTimings} abierta en el hilo.
+     */
+    public long start() {
+        return enabled || RequestTimings.current() != null ? System.nanoTime() : 0;
+    }
+
+    /** Como {@link #start()}, pero lee el reloj también si {@code traced} (un evento JFR lo necesita). */
+    public long start(boolean traced) {
+        return traced ? System.nanoTime() : start();
+    }
+
+    /**
+     * Registra la fase en el timer y en la medición del request, si corresponde, y devuelve su
+     * duración en nanos (0 sin marca).
+     */
+    public long record(PipelinePhase phase, long start) {
+        if (start == 0) {
+            return 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (enabled) {
+            phaseTimers[phase.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.add(phase, elapsed);
+        }
+        return elapsed;
+    }
+
+    public void matrixSize(int n) {
+        if (enabled) {
+            matrixSize.record(n);
+        }
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.matrixSize(n);
+        }
+    }
+
+    public void verdict(boolean isMutant) {
+        if (enabled) {
+            (isMutant ? mutantVerdicts : humanVerdicts).increment();
+        }
+    }
+
+    public void lookup(LookupOutcome outcome) {
+        if (enabled) {
+            lookupCounters[outcome.ordinal()].increment();
+        }
+    }
+
+    private static Counter verdictCounter(MeterRegistry registry, String verdict) {
+        return Counter.builder("mutant.verdicts")
+                .description("Veredictos devueltos, incluidos los servidos desde la cache")
+                .tag("verdict", verdict)
+                .register(registry);
+    }
+}
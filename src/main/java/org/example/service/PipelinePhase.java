@@ -0,0 +1,18 @@
+package org.example.service;
+
+/** Fases del análisis de un ADN que se miden por separado. */
+public enum PipelinePhase {
+    /** Validación, codificación a 2 bits y cálculo de la clave. */
+    ENCODE,
+    /** Búsqueda por clave en la base de datos ({@code findByDnaHash} o consulta IN). */
+    LOOKUP,
+    /** Conteo de secuencias en la matriz. */
+    DETECT,
+    /** Inserción (o encolado en write-behind) del registro nuevo. */
+    INSERT;
+
+    /** Valor del tag {@code phase} de los timers. */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
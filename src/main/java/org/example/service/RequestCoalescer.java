@@ -0,0 +1,97 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Single-flight por clave de ADN: mientras un request resuelve una clave, los demás con la misma
+ * clave esperan su resultado en lugar de repetir la búsqueda, la detección y la inserción. La
+ * entrada se quita al terminar, con éxito o con error, así que un fallo no queda cacheado.
+ *
+ * <p>La espera está acotada por {@code mutant.coalescing.max-wait}: si el primero tarda más, el
+ * que espera hace el trabajo por su cuenta (la inserción es idempotente, ver
+ * {@code VerdictStore.insertIfAbsent}).
+ */
+@Slf4j
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<DnaKey, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedRequests = new LongAdder();
+    private final boolean enabled;
+    private final Duration maxWait;
+
+    public RequestCoalescer(MutantProperties properties) {
+        MutantProperties.Coalescing config = properties.getCoalescing();
+        this.enabled = config.isEnabled();
+        this.maxWait = config.getMaxWait();
+    }
+
+    /** Sin coalescencia: cada request hace su propio trabajo. */
+    public static RequestCoalescer disabled() {
+        MutantProperties properties = new MutantProperties();
+        properties.getCoalescing().setEnabled(false);
+        return new RequestCoalescer(properties);
+    }
+
+    /** Ejecuta {@code work} salvo que otro hilo ya esté resolviendo la misma clave. */
+    public boolean execute(DnaKey key, BooleanSupplier work) {
+        if (!enabled) {
+            return work.getAsBoolean();
+        }
+        CompletableFuture<Boolean> own = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalescedRequests.increment();
+            return await(key, running, work);
+        }
+        try {
+            boolean result = work.getAsBoolean();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private boolean await(DnaKey key, CompletableFuture<Boolean> running, BooleanSupplier work) {
+        try {
+            return running.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("La clave {} sigue en curso después de {}, se resuelve en este request", key, maxWait);
+            return work.getAsBoolean();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return work.getAsBoolean();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public long coalescedRequests() {
+        return coalescedRequests.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
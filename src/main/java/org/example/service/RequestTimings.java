@@ -0,0 +1,90 @@
+package org.example.service;
+
+import java.util.Locale;
+
+/**
+ * Duraciones por fase de un único request HTTP, acumuladas por {@link PipelineMetrics#record} en el
+ * hilo que atiende el request mientras haya una medición abierta con {@link #begin()}. Sirve para
+ * armar el header {@code Server-Timing} y el registro de requests lentos; nunca guarda el ADN.
+ *
+ * <p>Solo ve las fases que corren en el hilo del request: si el veredicto lo resolvió otro
+ * request con el mismo ADN (ver {@link RequestCoalescer}), la espera cuenta en el total y no en
+ * una fase.
+ */
+public final class RequestTimings {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final PipelinePhase[] PHASES = PipelinePhase.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+    private int matrixSize = -1;
+
+    private RequestTimings() {
+    }
+
+    /** Abre la medición del request en el hilo actual, reemplazando una que haya quedado abierta. */
+    public static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /** Medición abierta en el hilo actual, o {@code null}. */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /** Cierra la medición del hilo actual. */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void add(PipelinePhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    void matrixSize(int n) {
+        matrixSize = n;
+    }
+
+    public long phaseNanos(PipelinePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /** Tamaño N de la matriz analizada; -1 si el request no llegó a analizarla. */
+    public int getMatrixSize() {
+        return matrixSize;
+    }
+
+    /** Tiempo desde {@link #begin()}. */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /** Valor del header: una métrica por fase medida más el total, en milisegundos. */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(96);
+        for (PipelinePhase phase : PHASES) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                appendMillis(header.append(phase.tag()).append(";dur="), phaseNanos[phase.ordinal()]).append(", ");
+            }
+        }
+        return appendMillis(header.append("total;dur="), elapsedNanos()).toString();
+    }
+
+    /** Desglose {@code clave=valor} para el registro de requests lentos. */
+    public String toLogFields() {
+        StringBuilder fields = new StringBuilder(128).append("n=").append(matrixSize);
+        for (PipelinePhase phase : PHASES) {
+            appendMillis(fields.append(' ').append(phase.tag()).append("_ms="), phaseNanos[phase.ordinal()]);
+        }
+        return fields.toString();
+    }
+
+    private static StringBuilder appendMillis(StringBuilder target, long nanos) {
+        return target.append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalable (Almeida et al., 2007): una lista de filtros ("slices") de capacidad
+ * creciente. Cuando el último se llena se agrega otro más grande con una tasa de falsos positivos
+ * más estricta, así la suma de las tasas queda acotada por la objetivo sin reconstruir nada. Solo
+ * agrega, nunca borra: sin contadores por bit y sin falsos negativos.
+ *
+ * <p>Seguro para hilos: los bits se marcan con {@link AtomicLongArray} y agregar un slice copia el
+ * arreglo y lo publica en un campo volatile.
+ */
+final class ScalableBloomFilter {
+
+    /** Cada slice nuevo tiene este factor de la tasa del anterior. */
+    static final double TIGHTENING_RATIO = 0.5;
+    /** Cada slice nuevo tiene este factor de la capacidad del anterior. */
+    static final int GROWTH_FACTOR = 2;
+
+    private static final double LN2 = Math.log(2);
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final double targetFpp;
+    private volatile Slice[] slices;
+
+    ScalableBloomFilter(long initialCapacity, double targetFpp) {
+        if (initialCapacity <= 0 || targetFpp <= 0 || targetFpp >= 1) {
+            throw new IllegalArgumentException("Capacidad y tasa de falsos positivos inválidas");
+        }
+        this.targetFpp = targetFpp;
+        // la primera se lleva (1 - r) de la tasa y cada una siguiente r veces la anterior: la suma es <= targetFpp
+        this.slices = new Slice[]{new Slice(initialCapacity, targetFpp * (1 - TIGHTENING_RATIO))};
+    }
+
+    void put(long hash) {
+        Slice last = slices[slices.length - 1];
+        if (last.isFull()) {
+            last = grow(last, last.capacity * GROWTH_FACTOR);
+        }
+        last.put(hash, Murmur3.rehash(hash));
+    }
+
+    boolean mightContain(long hash) {
+        final long hash2 = Murmur3.rehash(hash);
+        Slice[] current = slices;
+        for (int i = current.length - 1; i >= 0; i--) {
+            if (current[i].mightContain(hash, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Asegura lugar para {@code expected} elementos más sin degradar la tasa; agrega un slice de
+     * ese tamaño si el último no alcanza. Evita crecer de a duplicaciones al cargar una tabla grande.
+     */
+    void reserve(long expected) {
+        Slice last = slices[slices.length - 1];
+        if (last.capacity - last.count.get() < expected) {
+            grow(last, Math.max(expected, last.capacity * GROWTH_FACTOR));
+        }
+    }
+
+    private synchronized Slice grow(Slice full, long capacity) {
+        Slice[] current = slices;
+        Slice last = current[current.length - 1];
+        if (last != full) {
+            return last;  // otro hilo ya agregó el slice
+        }
+        Slice added = new Slice(capacity, last.fpp * TIGHTENING_RATIO);
+        Slice[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = added;
+        slices = grown;
+        return added;
+    }
+
+    long elements() {
+        long elements = 0;
+        for (Slice slice : slices) {
+            elements += slice.count.get();
+        }
+        return elements;
+    }
+
+    long capacity() {
+        long capacity = 0;
+        for (Slice slice : slices) {
+            capacity += slice.capacity;
+        }
+        return capacity;
+    }
+
+    int sliceCount() {
+        return slices.length;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (Slice slice : slices) {
+            bytes += (long) slice.bits.length() * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    double targetFpp() {
+        return targetFpp;
+    }
+
+    /**
+     * Tasa de falsos positivos estimada a partir de la ocupación real de cada slice:
+     * {@code 1 - Π(1 - ocupación^k)}. Recorre todos los bits, no es para el camino caliente.
+     */
+    double estimatedFpp() {
+        double none = 1;
+        for (Slice slice : slices) {
+            none *= 1 - Math.pow(slice.fillRatio(), slice.hashFunctions);
+        }
+        return 1 - none;
+    }
+
+    private static final class Slice {
+
+        private final long capacity;
+        private final double fpp;
+        private final long numBits;
+        private final int hashFunctions;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        Slice(long capacity, double fpp) {
+            this.capacity = capacity;
+            this.fpp = fpp;
+            // m = -n ln p / (ln 2)^2 redondeado a palabras, k = m/n ln 2
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(fpp) / (LN2 * LN2));
+            this.numBits = Math.min(MAX_BITS, Math.max(Long.SIZE, (optimalBits + Long.SIZE - 1) & -Long.SIZE));
+            this.hashFunctions = Math.max(1, (int) Math.round((double) numBits / capacity * LN2));
+            this.bits = new AtomicLongArray((int) (numBits / Long.SIZE));
+        }
+
+        boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        void put(long hash1, long hash2) {
+            for (int i = 0; i < hashFunctions; i++) {
+                final long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+                final int word = (int) (bit >>> 6);
+                final long mask = 1L << bit;
+                long current = bits.get(word);
+                while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    current = bits.get(word);
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashFunctions; i++) {
+                final long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double fillRatio() {
+            long set = 0;
+            for (int i = 0; i < bits.length(); i++) {
+                set += Long.bitCount(bits.get(i));
+            }
+            return (double) set / numBits;
+        }
+    }
+}
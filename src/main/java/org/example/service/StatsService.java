@@ -1,22 +1,108 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.CacheStatsResponse;
+import org.example.dto.FilterStatsResponse;
 import org.example.dto.StatsResponse;
-import org.example.entity.DnaRecord;
-import org.example.repository.DnaRecordRepository;
+import org.example.repository.VerdictStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Las estadísticas se sirven desde contadores en memoria: se cargan desde la base de datos al
+ * arrancar, se incrementan con cada registro nuevo y una tarea periódica los reconcilia con
+ * COUNT(*) para detectar y corregir desvíos.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class StatsService {
-    private final DnaRecordRepository dnaRecordRepository;
+    private final VerdictStore verdictStore;
+    private final VerdictCache verdictCache;
+    private final DnaKeyFilter dnaKeyFilter;
+    private final RequestCoalescer requestCoalescer;
+    private final LongAdder mutantCounter = new LongAdder();
+    private final LongAdder humanCounter = new LongAdder();
+    /** Desvío visto en la última reconciliación de cada contador, a confirmar en la siguiente. */
+    private long mutantDrift;
+    private long humanDrift;
+
     public StatsResponse getStats() {
-        long humanCount = dnaRecordRepository.countByIsMutant(false);
-        long mutantCount = dnaRecordRepository.countByIsMutant(true);
+        long humanCount = humanCounter.sum();
+        long mutantCount = mutantCounter.sum();
         double ratio = calculateRatio(mutantCount, humanCount);
         return new StatsResponse(mutantCount, humanCount, ratio);
     }
+    public CacheStatsResponse getCacheStats() {
+        return new CacheStatsResponse(verdictCache.isEnabled(), verdictCache.size(),
+                verdictCache.hitCount(), verdictCache.missCount(), verdictCache.evictionCount(),
+                requestCoalescer.coalescedRequests());
+    }
+
+    public FilterStatsResponse getFilterStats() {
+        return dnaKeyFilter.getStats();
+    }
+
+    /** Debe llamarse solo cuando se insertó efectivamente un DnaRecord nuevo. */
+    public void recordNewDna(boolean isMutant) {
+        (isMutant ? mutantCounter : humanCounter).increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeCounters() {
+        alignCounter(mutantCounter, verdictStore.countByIsMutant(true));
+        alignCounter(humanCounter, verdictStore.countByIsMutant(false));
+        log.info("Contadores de estadísticas inicializados: mutantes={} humanos={}",
+                mutantCounter.sum(), humanCounter.sum());
+    }
+
+    /**
+     * Vuelve a contar en la base de datos y corrige el contador si difiere en lo mismo en dos
+     * ejecuciones seguidas. Un desvío aislado puede ser un registro ya guardado cuyo
+     * {@link #recordNewDna} todavía no corrió; si hubo inserciones mientras se contaba, la
+     * comparación no es confiable y se deja para la próxima ejecución.
+     */
+    @Scheduled(initialDelayString = "${mutant.stats.reconcile-interval:PT5M}",
+            fixedDelayString = "${mutant.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        mutantDrift = reconcileCounter(true, mutantCounter, mutantDrift);
+        humanDrift = reconcileCounter(false, humanCounter, humanDrift);
+    }
+
+    /** Devuelve el desvío que queda pendiente de confirmar en la próxima ejecución. */
+    private long reconcileCounter(boolean isMutant, LongAdder counter, long previousDrift) {
+        long before = counter.sum();
+        long actual = verdictStore.countByIsMutant(isMutant);
+        long after = counter.sum();
+        if (before != after) {
+            log.debug("Reconciliación de {} pospuesta: hubo inserciones durante el conteo",
+                    isMutant ? "mutantes" : "humanos");
+            return previousDrift;
+        }
+        long drift = actual - after;
+        if (drift == 0) {
+            return 0;
+        }
+        if (drift != previousDrift) {
+            log.debug("Desvío de {} en el contador de {}: se corrige si se repite en la próxima reconciliación",
+                    drift, isMutant ? "mutantes" : "humanos");
+            return drift;
+        }
+        log.warn("Desvío en el contador de {}: memoria={} base de datos={} (desvío {})",
+                isMutant ? "mutantes" : "humanos", after, actual, drift);
+        counter.add(drift);
+        return 0;
+    }
+
+    private static void alignCounter(LongAdder counter, long actual) {
+        counter.add(actual - counter.sum());
+    }
+
     private double calculateRatio(long mutantCount, long humanCount) {
         if (humanCount == 0) return (double) mutantCount;
         return (double) mutantCount / humanCount;
@@ -0,0 +1,143 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.MutantProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache en proceso de veredictos (clave del ADN -> es mutante) consultada antes que la base de
+ * datos. Acotada por cantidad de entradas y por TTL; Caffeine aplica W-TinyLFU como política de
+ * desalojo, de modo que los ADN repetidos con frecuencia sobreviven a ráfagas de ADN nuevos.
+ * Con Actuator publica sus aciertos, fallos, desalojos y tamaño como métricas {@code cache.*}.
+ *
+ * <p>Con {@code mutant.cache.type=OFF_HEAP} los veredictos van a un {@link OffHeapVerdictMap}, sin
+ * objetos por entrada en el heap. No hay desalojo ni TTL (un veredicto no cambia): al llegar a
+ * {@code max-entries} deja de admitir claves nuevas. Las claves con verificación de colisiones no
+ * se cachean en ese modo, porque la tabla guarda solo la huella.
+ */
+@Slf4j
+@Component
+public class VerdictCache implements MeterBinder {
+
+    static final String CACHE_NAME = "dna-verdicts";
+
+    private final Cache<DnaKey, Boolean> cache;
+    private final OffHeapVerdictMap offHeap;
+    private final long maxEntries;
+    private final LongAdder offHeapHits = new LongAdder();
+    private final LongAdder offHeapMisses = new LongAdder();
+
+    public VerdictCache(MutantProperties properties) {
+        MutantProperties.Cache config = properties.getCache();
+        this.maxEntries = config.getMaxEntries();
+        if (config.isEnabled() && config.getType() == MutantProperties.Cache.Type.OFF_HEAP) {
+            MutantProperties.Hash hash = properties.getHash();
+            this.offHeap = new OffHeapVerdictMap(OffHeapVerdictMap.keyWordsFor(hash.getAlgorithm(),
+                    Math.min(hash.getExactMaxSize(), DnaKeyFactory.MAX_EXACT_SIZE)), config.getMaxEntries(),
+                    config.getConcurrency());
+            this.cache = null;
+            log.info("Cache de veredictos fuera del heap: máx. {} entradas, {} KiB reservados",
+                    config.getMaxEntries(), offHeap.memoryBytes() / 1024);
+            return;
+        }
+        this.offHeap = null;
+        if (config.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaxEntries())
+                    .expireAfterWrite(config.getTtl())
+                    .recordStats()
+                    .build();
+            log.info("Cache de veredictos activa: máx. {} entradas, TTL {}", config.getMaxEntries(), config.getTtl());
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /** Sin cache: toda consulta va a la base de datos. */
+    public static VerdictCache disabled() {
+        MutantProperties properties = new MutantProperties();
+        properties.getCache().setEnabled(false);
+        return new VerdictCache(properties);
+    }
+
+    /** Veredicto cacheado o {@code null} si la clave no está en la cache. */
+    public Boolean getIfPresent(DnaKey key) {
+        if (offHeap != null) {
+            int verdict = key.verification() == null ? offHeap.get(key.bytes()) : OffHeapVerdictMap.ABSENT;
+            if (verdict == OffHeapVerdictMap.ABSENT) {
+                offHeapMisses.increment();
+                return null;
+            }
+            offHeapHits.increment();
+            return verdict == 1;
+        }
+        return cache == null ? null : cache.getIfPresent(key);
+    }
+
+    public void put(DnaKey key, boolean isMutant) {
+        if (offHeap != null) {
+            if (key.verification() == null && offHeap.size() < maxEntries) {
+                offHeap.put(key.bytes(), isMutant);
+            }
+            return;
+        }
+        if (cache != null) {
+            cache.put(key, isMutant);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        }
+        if (offHeap != null) {
+            FunctionCounter.builder("cache.gets", offHeapHits, LongAdder::sum)
+                    .tags("cache", CACHE_NAME, "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", offHeapMisses, LongAdder::sum)
+                    .tags("cache", CACHE_NAME, "result", "miss").register(registry);
+            Gauge.builder("cache.size", offHeap, OffHeapVerdictMap::size)
+                    .tag("cache", CACHE_NAME).register(registry);
+            Gauge.builder("cache.off.heap.bytes", offHeap, OffHeapVerdictMap::memoryBytes)
+                    .tag("cache", CACHE_NAME).baseUnit("bytes").register(registry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null || offHeap != null;
+    }
+
+    public long hitCount() {
+        if (offHeap != null) {
+            return offHeapHits.sum();
+        }
+        return cache == null ? 0 : cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        if (offHeap != null) {
+            return offHeapMisses.sum();
+        }
+        return cache == null ? 0 : cache.stats().missCount();
+    }
+
+    public long evictionCount() {
+        return cache == null ? 0 : cache.stats().evictionCount();
+    }
+
+    public long size() {
+        if (offHeap != null) {
+            return offHeap.size();
+        }
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.service.detection;
+
+/**
+ * Estrategia de búsqueda de secuencias de cuatro bases iguales sobre la matriz ya validada y
+ * codificada.
+ */
+public interface DetectionEngine {
+
+    int SEQUENCE_LENGTH = 4;
+
+    /**
+     * Cuenta las secuencias asignadas a las filas [fromRow, toRow). Cada secuencia se asigna a
+     * exactamente una fila, por lo que rangos disjuntos nunca cuentan la misma secuencia dos veces.
+     * Deja de buscar en cuanto el conteo alcanza {@code limit}.
+     */
+    default int countSequences(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        return count(scan(matrix, fromRow, toRow, limit));
+    }
+
+    /**
+     * Como {@link #countSequences}, y en la misma pasada la fila en la que cortó: devuelve el
+     * conteo y la fila (exclusiva) en la que alcanzó {@code limit}, o -1 si no lo alcanzó o no se
+     * sabe, empaquetados con {@link #result}.
+     */
+    long scan(PackedDnaMatrix matrix, int fromRow, int toRow, int limit);
+
+    /** Conteo y fila de corte en un long: el conteo en los 32 bits bajos, la fila en los altos. */
+    static long result(int count, int exitRow) {
+        return ((long) exitRow << 32) | (count & 0xFFFF_FFFFL);
+    }
+
+    static int count(long result) {
+        return (int) result;
+    }
+
+    static int exitRow(long result) {
+        return (int) (result >> 32);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.service.detection;
+
+public enum DetectionMode {
+    /** Recorrido celda a celda comparando los tres vecinos en cada dirección (implementación original). */
+    SCALAR {
+        @Override
+        public DetectionEngine createEngine() {
+            return new ScalarDetectionEngine();
+        }
+    },
+    /** Bases de 2 bits empaquetadas en long con comparación palabra a palabra. */
+    SWAR {
+        @Override
+        public DetectionEngine createEngine() {
+            return new SwarDetectionEngine();
+        }
+    },
+    /** Una sola pasada por filas con contadores de racha por columna y diagonal. */
+    RUN_LENGTH {
+        @Override
+        public DetectionEngine createEngine() {
+            return new RunLengthDetectionEngine();
+        }
+    };
+
+    public abstract DetectionEngine createEngine();
+}
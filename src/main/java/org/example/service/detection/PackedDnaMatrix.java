@@ -0,0 +1,440 @@
+package org.example.service.detection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Matriz de ADN codificada a 2 bits por base (A=0, C=1, G=2, T=3), 32 bases por palabra.
+ * La base de la columna c ocupa los bits 2*(c%32) y 2*(c%32)+1 de la palabra c/32 de su fila;
+ * los lanes que sobran al final de cada fila quedan en 0.
+ */
+public final class PackedDnaMatrix {
+
+    public static final int BASES_PER_WORD = 32;
+    /** Bases por byte en las filas empaquetadas de {@link Builder#addPackedRow}. */
+    public static final int BASES_PER_BYTE = 4;
+    private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    private final int size;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    private PackedDnaMatrix(int size) {
+        this(size, new long[size * wordsPerRow(size)]);
+    }
+
+    private PackedDnaMatrix(int size, long[] words) {
+        this.size = size;
+        this.wordsPerRow = wordsPerRow(size);
+        this.words = words;
+    }
+
+    private static int wordsPerRow(int size) {
+        return (size + BASES_PER_WORD - 1) / BASES_PER_WORD;
+    }
+
+    /** Codifica un ADN ya validado (cuadrado y con alfabeto ATCG). */
+    public static PackedDnaMatrix encode(String[] dna) {
+        PackedDnaMatrix matrix = tryEncode(dna, null);
+        if (matrix == null) {
+            throw new IllegalArgumentException("Secuencia de ADN inválida");
+        }
+        return matrix;
+    }
+
+    /**
+     * Valida forma y alfabeto y codifica en una sola pasada por cada carácter. Si se pasa un
+     * {@code digest}, cada fila válida se le entrega como bytes ASCII en el mismo recorrido, de modo
+     * que el hash coincide con el de {@code String.join("", dna)} en UTF-8.
+     *
+     * @return la matriz codificada, o null si el ADN no es cuadrado o tiene bases fuera de ATCG
+     */
+    public static PackedDnaMatrix tryEncode(String[] dna, MessageDigest digest) {
+        return tryEncode(dna, digest, digest != null && dna != null ? new byte[dna.length] : null);
+    }
+
+    /**
+     * Como {@link #tryEncode(String[], MessageDigest)}, con un buffer del llamador para las filas
+     * que se entregan al digest; debe tener al menos N bytes si hay digest.
+     */
+    public static PackedDnaMatrix tryEncode(String[] dna, MessageDigest digest, byte[] rowBytes) {
+        if (dna == null || dna.length == 0) {
+            return null;
+        }
+        final int n = dna.length;
+        PackedDnaMatrix matrix = new PackedDnaMatrix(n);
+        for (int row = 0; row < n; row++) {
+            final String bases = dna[row];
+            if (bases == null || bases.length() != n) {
+                return null;
+            }
+            final int offset = row * matrix.wordsPerRow;
+            for (int col = 0; col < n; col++) {
+                final char base = bases.charAt(col);
+                final int code = code(base);
+                if (code < 0) {
+                    return null;
+                }
+                matrix.words[offset + col / BASES_PER_WORD] |= (long) code << (2 * (col % BASES_PER_WORD));
+                if (digest != null) {
+                    rowBytes[col] = (byte) base;
+                }
+            }
+            if (digest != null) {
+                digest.update(rowBytes, 0, n);
+            }
+        }
+        return matrix;
+    }
+
+    public static int code(char base) {
+        switch (base) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    /** Bytes de una fila de N bases empaquetada a 2 bits, completando el último byte. */
+    public static int packedRowBytes(int size) {
+        return (size + BASES_PER_BYTE - 1) / BASES_PER_BYTE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int wordsPerRow() {
+        return wordsPerRow;
+    }
+
+    public long word(int row, int index) {
+        return words[row * wordsPerRow + index];
+    }
+
+    /** Palabra {@code index} de la fila desplazada {@code shift} bases hacia la izquierda (0 a 3). */
+    public long shiftedWord(int row, int index, int shift) {
+        final int offset = row * wordsPerRow + index;
+        if (shift == 0) {
+            return words[offset];
+        }
+        long value = words[offset] >>> (2 * shift);
+        if (index + 1 < wordsPerRow) {
+            value |= words[offset + 1] << (64 - 2 * shift);
+        }
+        return value;
+    }
+
+    public int base(int row, int col) {
+        return (int) (words[row * wordsPerRow + col / BASES_PER_WORD] >>> (2 * (col % BASES_PER_WORD))) & 3;
+    }
+
+    public char baseChar(int row, int col) {
+        return BASES[base(row, col)];
+    }
+
+    /** Cantidad de simetrías del cuadrado: 4 rotaciones y sus espejos. */
+    public static final int SYMMETRIES = 8;
+    /** Bits de las simetrías de {@link Symmetries}: invertir cada fila, el orden de las filas, transponer. */
+    private static final int REVERSED_ROW = 1;
+    private static final int REVERSED_ROWS = 2;
+    private static final int TRANSPOSED = 4;
+
+    /**
+     * Forma canónica: de las ocho simetrías del cuadrado, la matriz lexicográficamente menor
+     * leyendo las bases fila por fila. Rotar, transponer o espejar no cambia el veredicto (las
+     * direcciones horizontal/vertical y las dos diagonales se intercambian entre sí), así que las
+     * matrices equivalentes comparten forma canónica.
+     *
+     * <p>Las simetrías se comparan de a palabras de 32 bases sin materializarlas (ver
+     * {@link Symmetries}) y la comparación termina en la primera palabra distinta; solo se
+     * construye la ganadora.
+     *
+     * @return esta misma instancia si ya es canónica
+     */
+    public PackedDnaMatrix canonical() {
+        Symmetries symmetries = new Symmetries(this);
+        int best = 0;
+        for (int symmetry = 1; symmetry < SYMMETRIES; symmetry++) {
+            if (symmetries.compare(symmetry, best) < 0) {
+                best = symmetry;
+            }
+        }
+        if (best == 0) {
+            return this;
+        }
+        PackedDnaMatrix result = new PackedDnaMatrix(size);
+        for (int row = 0; row < size; row++) {
+            for (int index = 0; index < wordsPerRow; index++) {
+                result.words[row * wordsPerRow + index] = symmetries.word(best, row, index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Las ocho simetrías leídas de a palabras. Cada una es la matriz o su transpuesta, con las
+     * filas en orden o invertido ({@link #REVERSED_ROWS}) y cada fila al derecho o al revés
+     * ({@link #REVERSED_ROW}). Una fila al revés sale de invertir los lanes de 2 bits de sus
+     * palabras. Las filas de la transpuesta son columnas de la matriz: la primera se compara base
+     * por base, porque casi siempre la diferencia está en las primeras bases, y solo si empatan se
+     * construye la transpuesta para seguir de a palabras.
+     */
+    private static final class Symmetries {
+
+        private final PackedDnaMatrix matrix;
+        private PackedDnaMatrix transposed;
+
+        Symmetries(PackedDnaMatrix matrix) {
+            this.matrix = matrix;
+        }
+
+        int compare(int first, int second) {
+            int row = 0;
+            if (transposed == null && (first >= TRANSPOSED || second >= TRANSPOSED)) {
+                for (int col = 0; col < matrix.size; col++) {
+                    final int difference = firstRowBase(first, col) - firstRowBase(second, col);
+                    if (difference != 0) {
+                        return difference;
+                    }
+                }
+                transposed = matrix.transposed();
+                row = 1;
+            }
+            for (; row < matrix.size; row++) {
+                for (int index = 0; index < matrix.wordsPerRow; index++) {
+                    final long a = word(first, row, index);
+                    final long b = word(second, row, index);
+                    if (a != b) {
+                        // la primera base distinta es el lane más bajo que difiere
+                        final int shift = Long.numberOfTrailingZeros(a ^ b) & ~1;
+                        return (int) ((a >>> shift) & 3) - (int) ((b >>> shift) & 3);
+                    }
+                }
+            }
+            return 0;
+        }
+
+        /** Palabra {@code index} de la fila {@code row} de la matriz vista a través de la simetría. */
+        long word(int symmetry, int row, int index) {
+            final int source = (symmetry & REVERSED_ROWS) != 0 ? matrix.size - 1 - row : row;
+            final boolean reversed = (symmetry & REVERSED_ROW) != 0;
+            if (symmetry < TRANSPOSED) {
+                return matrix.rowWord(source, index, reversed);
+            }
+            if (transposed == null) {
+                transposed = matrix.transposed();
+            }
+            return transposed.rowWord(source, index, reversed);
+        }
+
+        private int firstRowBase(int symmetry, int col) {
+            final int last = matrix.size - 1;
+            final int row = (symmetry & REVERSED_ROWS) != 0 ? last : 0;
+            final int column = (symmetry & REVERSED_ROW) != 0 ? last - col : col;
+            return symmetry < TRANSPOSED ? matrix.base(row, column) : matrix.base(column, row);
+        }
+    }
+
+    /** Palabra {@code index} de la fila, o de la fila leída de derecha a izquierda. */
+    private long rowWord(int row, int index, boolean reversed) {
+        final int offset = row * wordsPerRow;
+        if (!reversed) {
+            return words[offset + index];
+        }
+        // invertir los lanes de toda la fila deja los lanes de relleno al principio: se corre pad bases
+        final int pad = wordsPerRow * BASES_PER_WORD - size;
+        final long low = reverseLanes(words[offset + wordsPerRow - 1 - index]);
+        if (pad == 0) {
+            return low;
+        }
+        final long high = index + 1 < wordsPerRow ? reverseLanes(words[offset + wordsPerRow - 2 - index]) : 0;
+        return (low >>> (2 * pad)) | (high << (64 - 2 * pad));
+    }
+
+    /** Invierte el orden de los 32 lanes de 2 bits, conservando los dos bits de cada base. */
+    static long reverseLanes(long word) {
+        final long reversed = Long.reverse(word);
+        return ((reversed >>> 1) & 0x5555555555555555L) | ((reversed & 0x5555555555555555L) << 1);
+    }
+
+    private PackedDnaMatrix transposed() {
+        PackedDnaMatrix result = new PackedDnaMatrix(size);
+        for (int row = 0; row < size; row++) {
+            final int offset = row * wordsPerRow;
+            final int lane = 2 * (row % BASES_PER_WORD);
+            final int target = row / BASES_PER_WORD;
+            for (int col = 0; col < size; col++) {
+                final long code = (words[offset + col / BASES_PER_WORD] >>> (2 * (col % BASES_PER_WORD))) & 3;
+                result.words[col * wordsPerRow + target] |= code << lane;
+            }
+        }
+        return result;
+    }
+
+    /** La matriz vista a través de la simetría indicada (0 = identidad, ver {@link #baseUnder}). */
+    public PackedDnaMatrix transformed(int symmetry) {
+        PackedDnaMatrix result = new PackedDnaMatrix(size);
+        for (int row = 0; row < size; row++) {
+            final int offset = row * wordsPerRow;
+            for (int col = 0; col < size; col++) {
+                result.words[offset + col / BASES_PER_WORD] |=
+                        (long) baseUnder(symmetry, row, col) << (2 * (col % BASES_PER_WORD));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Base en (row, col) de la matriz transformada: 0 identidad, 1-3 rotaciones de 90, 180 y 270
+     * grados, 4 transpuesta, 5 transpuesta por la antidiagonal, 6 espejo de columnas, 7 espejo de
+     * filas.
+     */
+    private int baseUnder(int symmetry, int row, int col) {
+        final int last = size - 1;
+        switch (symmetry) {
+            case 0: return base(row, col);
+            case 1: return base(last - col, row);
+            case 2: return base(last - row, last - col);
+            case 3: return base(col, last - row);
+            case 4: return base(col, row);
+            case 5: return base(last - col, last - row);
+            case 6: return base(row, last - col);
+            case 7: return base(last - row, col);
+            default: throw new IllegalArgumentException("Simetría inválida: " + symmetry);
+        }
+    }
+
+    /** Serialización exacta: N como int seguido de las palabras en little-endian. */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + Long.BYTES * words.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(size);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PackedDnaMatrix matrix)) {
+            return false;
+        }
+        return size == matrix.size && Arrays.equals(words, matrix.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(words);
+    }
+
+    /**
+     * Codificación fila por fila de una matriz de N x N, para ADN que llega como flujo. Las palabras
+     * se reservan a medida que llegan las filas: una primera fila larga no reserva la matriz completa
+     * antes de que llegue el resto.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_ROWS = 64;
+        private static final VarHandle LITTLE_ENDIAN_WORD =
+                MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+        private final int size;
+        private final int wordsPerRow;
+        private long[] words;
+        private int rows;
+
+        public Builder(int size) {
+            this.size = size;
+            this.wordsPerRow = wordsPerRow(size);
+            this.words = new long[Math.min(size, INITIAL_ROWS) * wordsPerRow];
+        }
+
+        /**
+         * Valida y codifica la fila siguiente desde {@code chars[offset, offset + length)}, con la misma
+         * entrega al {@code digest} que {@link #tryEncode(String[], MessageDigest, byte[])}.
+         *
+         * @return false si ya hay N filas, si la fila no tiene N bases o si alguna no es ATCG
+         */
+        public boolean addRow(char[] chars, int offset, int length, MessageDigest digest, byte[] rowBytes) {
+            if (rows == size || length != size) {
+                return false;
+            }
+            final int start = nextRowStart();
+            for (int col = 0; col < size; col++) {
+                final char base = chars[offset + col];
+                final int code = code(base);
+                if (code < 0) {
+                    return false;
+                }
+                words[start + col / BASES_PER_WORD] |= (long) code << (2 * (col % BASES_PER_WORD));
+                if (digest != null) {
+                    rowBytes[col] = (byte) base;
+                }
+            }
+            if (digest != null) {
+                digest.update(rowBytes, 0, size);
+            }
+            rows++;
+            return true;
+        }
+
+        /**
+         * Agrega la fila siguiente ya empaquetada: {@link #packedRowBytes} bytes desde
+         * {@code packed[offset]}, con la primera base en los 2 bits bajos de cada byte. Es el mismo
+         * orden que el de las palabras en little-endian, así que los bytes se copian tal cual. Al
+         * {@code digest} se le entrega la fila en ASCII, de modo que la clave coincide con la de las
+         * mismas filas en texto.
+         *
+         * @return false si ya hay N filas o si los bits que sobran en el último byte no están en 0
+         */
+        public boolean addPackedRow(byte[] packed, int offset, MessageDigest digest, byte[] rowBytes) {
+            final int length = packedRowBytes(size);
+            final int tail = size % BASES_PER_BYTE;
+            if (rows == size || (tail != 0 && (packed[offset + length - 1] & 0xff) >>> (2 * tail) != 0)) {
+                return false;
+            }
+            final int start = nextRowStart();
+            int i = 0;
+            for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                words[start + i / Long.BYTES] = (long) LITTLE_ENDIAN_WORD.get(packed, offset + i);
+            }
+            for (; i < length; i++) {
+                words[start + i / Long.BYTES] |= (packed[offset + i] & 0xffL) << (8 * (i % Long.BYTES));
+            }
+            if (digest != null) {
+                for (int col = 0; col < size; col++) {
+                    final int lane = packed[offset + col / BASES_PER_BYTE] >>> (2 * (col % BASES_PER_BYTE));
+                    rowBytes[col] = (byte) BASES[lane & 3];
+                }
+                digest.update(rowBytes, 0, size);
+            }
+            rows++;
+            return true;
+        }
+
+        /** Primera palabra de la fila siguiente, creciendo el arreglo si hace falta. */
+        private int nextRowStart() {
+            final int start = rows * wordsPerRow;
+            if (start + wordsPerRow > words.length) {
+                words = Arrays.copyOf(words, (int) Math.min((long) size * wordsPerRow, 2L * words.length));
+            }
+            return start;
+        }
+
+        /** La matriz codificada, o null si llegaron menos de N filas. */
+        public PackedDnaMatrix build() {
+            return size > 0 && rows == size ? new PackedDnaMatrix(size, words) : null;
+        }
+    }
+}
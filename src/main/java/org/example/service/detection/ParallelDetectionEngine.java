@@ -0,0 +1,97 @@
+package org.example.service.detection;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Detección en paralelo para matrices grandes: divide las filas en bandas horizontales que se
+ * procesan en un ForkJoinPool con el motor delegado.
+ *
+ * <p>Cada banda lee hasta tres filas de la banda vecina (el halo que necesitan las secuencias
+ * verticales y diagonales que cruzan el borde), pero solo cuenta las secuencias asignadas a sus
+ * propias filas, así que ninguna se cuenta dos veces. Todas las bandas suman en un contador
+ * atómico compartido y dejan de trabajar en cuanto se alcanza el límite. En paralelo no hay una
+ * fila de corte: {@link #scan} la devuelve solo si la matriz no llegó al umbral.
+ *
+ * <p>El pool es propio del motor: quien lo crea tiene que cerrarlo con {@link #close}.
+ */
+public class ParallelDetectionEngine implements DetectionEngine, AutoCloseable {
+
+    /** Filas que procesa una banda entre dos consultas al contador compartido. */
+    static final int ROWS_PER_STEP = 32;
+
+    private final DetectionEngine delegate;
+    private final int threshold;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    public ParallelDetectionEngine(DetectionEngine delegate, int threshold, int parallelism) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public long scan(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        if (matrix.size() < threshold || toRow - fromRow <= ROWS_PER_STEP) {
+            return delegate.scan(matrix, fromRow, toRow, limit);
+        }
+        final int bandRows = Math.max(ROWS_PER_STEP, ceilDiv(toRow - fromRow, parallelism * 4));
+        AtomicInteger found = new AtomicInteger();
+        pool.invoke(new BandTask(matrix, fromRow, toRow, bandRows, limit, found));
+        return DetectionEngine.result(found.get(), -1);
+    }
+
+    /** Apaga el pool; las bandas en curso terminan, las detecciones nuevas se rechazan. */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private final class BandTask extends RecursiveAction {
+        private final transient PackedDnaMatrix matrix;
+        private final int fromRow;
+        private final int toRow;
+        private final int bandRows;
+        private final int limit;
+        private final AtomicInteger found;
+
+        BandTask(PackedDnaMatrix matrix, int fromRow, int toRow, int bandRows, int limit, AtomicInteger found) {
+            this.matrix = matrix;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.bandRows = bandRows;
+            this.limit = limit;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get() >= limit) {
+                return;
+            }
+            if (toRow - fromRow > bandRows) {
+                final int middle = (fromRow + toRow) >>> 1;
+                invokeAll(new BandTask(matrix, fromRow, middle, bandRows, limit, found),
+                        new BandTask(matrix, middle, toRow, bandRows, limit, found));
+                return;
+            }
+            for (int row = fromRow; row < toRow; row += ROWS_PER_STEP) {
+                final int remaining = limit - found.get();
+                if (remaining <= 0) {
+                    return;  // ← otra banda ya completó el límite
+                }
+                int count = delegate.countSequences(matrix, row, Math.min(toRow, row + ROWS_PER_STEP), remaining);
+                if (count > 0) {
+                    found.addAndGet(count);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.service.detection;
+
+/**
+ * Motor de una sola pasada: recorre la matriz fila por fila leyendo cada base una única vez y
+ * mantiene contadores de racha por columna, por diagonal descendente y por diagonal ascendente
+ * (O(N) de estado) más un contador horizontal. Cada vez que una racha alcanza o supera cuatro se
+ * cuenta una secuencia, asignada a la fila donde termina.
+ *
+ * <p>Para contar a partir de una fila intermedia se recorren antes hasta tres filas previas sin
+ * contar, de modo que las rachas que cruzan el inicio del rango quedan bien inicializadas.
+ *
+ * <p>Los contadores y las filas de bases se reutilizan por hilo hasta {@value #MAX_REUSED_SIZE}
+ * columnas: la primera fila de cada llamada los sobrescribe, así que no hace falta limpiarlos. Las
+ * matrices más grandes los reservan en cada llamada para no retenerlos en los hilos.
+ */
+public class RunLengthDetectionEngine implements DetectionEngine {
+
+    static final int MAX_REUSED_SIZE = 4096;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public long scan(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        final int n = matrix.size();
+        if (n < SEQUENCE_LENGTH || fromRow >= toRow) {
+            return DetectionEngine.result(0, -1);
+        }
+        final int startRow = Math.max(0, fromRow - (SEQUENCE_LENGTH - 1));
+        Scratch scratch = n <= MAX_REUSED_SIZE ? SCRATCH.get().ensure(n) : new Scratch().ensure(n);
+        int[] vertical = scratch.runs[0];
+        int[] descending = scratch.runs[1];
+        int[] ascending = scratch.runs[2];
+        int[] previousVertical = scratch.runs[3];
+        int[] previousDescending = scratch.runs[4];
+        int[] previousAscending = scratch.runs[5];
+
+        // bases de la fila anterior, para no volver a leerlas de la matriz
+        byte[] current = scratch.bases[0];
+        byte[] previous = scratch.bases[1];
+
+        int sequenceCount = 0;
+        for (int row = startRow; row < toRow; row++) {
+            final boolean first = row == startRow;
+            final boolean counting = row >= fromRow;
+            int horizontal = 0;
+            int left = 0;
+            for (int col = 0; col < n; col++) {
+                final int base = matrix.base(row, col);
+                current[col] = (byte) base;
+                horizontal = col > 0 && base == left ? horizontal + 1 : 1;
+                left = base;
+                int found = horizontal >= SEQUENCE_LENGTH ? 1 : 0;
+                if (first) {
+                    vertical[col] = 1;
+                    descending[col] = 1;
+                    ascending[col] = 1;
+                } else {
+                    vertical[col] = base == previous[col] ? previousVertical[col] + 1 : 1;
+                    descending[col] = col > 0 && base == previous[col - 1]
+                            ? previousDescending[col - 1] + 1 : 1;
+                    ascending[col] = col < n - 1 && base == previous[col + 1]
+                            ? previousAscending[col + 1] + 1 : 1;
+                    if (vertical[col] >= SEQUENCE_LENGTH) found++;
+                    if (descending[col] >= SEQUENCE_LENGTH) found++;
+                    if (ascending[col] >= SEQUENCE_LENGTH) found++;
+                }
+                if (counting && found > 0) {
+                    sequenceCount += found;
+                    if (sequenceCount >= limit) {
+                        return DetectionEngine.result(sequenceCount, row + 1);  // ← EARLY TERMINATION
+                    }
+                }
+            }
+            int[] swap = previousVertical;
+            previousVertical = vertical;
+            vertical = swap;
+            swap = previousDescending;
+            previousDescending = descending;
+            descending = swap;
+            swap = previousAscending;
+            previousAscending = ascending;
+            ascending = swap;
+            byte[] bases = previous;
+            previous = current;
+            current = bases;
+        }
+        return DetectionEngine.result(sequenceCount, -1);
+    }
+
+    /** Seis arreglos de rachas (actuales y de la fila anterior) y dos filas de bases. */
+    private static final class Scratch {
+        final int[][] runs = new int[6][0];
+        final byte[][] bases = new byte[2][0];
+
+        Scratch ensure(int n) {
+            if (bases[0].length < n) {
+                for (int i = 0; i < runs.length; i++) {
+                    runs[i] = new int[n];
+                }
+                bases[0] = new byte[n];
+                bases[1] = new byte[n];
+            }
+            return this;
+        }
+    }
+}
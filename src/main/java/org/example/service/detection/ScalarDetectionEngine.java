@@ -0,0 +1,73 @@
+package org.example.service.detection;
+
+/**
+ * Motor original: compara los tres vecinos de cada celda en las cuatro direcciones. Las
+ * diagonales ascendentes se asignan a su fila inferior.
+ */
+public class ScalarDetectionEngine implements DetectionEngine {
+
+    @Override
+    public long scan(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        final int n = matrix.size();
+        int sequenceCount = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            for (int col = 0; col < n; col++) {
+                if (col <= n - SEQUENCE_LENGTH) {  // col <= n-4
+                    if (checkHorizontal(matrix, row, col)) {
+                        sequenceCount++;
+                        if (sequenceCount >= limit) return exit(sequenceCount, row);  // ← EARLY TERMINATION
+                    }
+                }
+                if (row <= n - SEQUENCE_LENGTH) {
+                    if (checkVertical(matrix, row, col)) {
+                        sequenceCount++;
+                        if (sequenceCount >= limit) return exit(sequenceCount, row);
+                    }
+                }
+                if (row >= SEQUENCE_LENGTH - 1 && col <= n - SEQUENCE_LENGTH) {
+                    if (checkDiagonalAscending(matrix, row, col)) {
+                        sequenceCount++;
+                        if (sequenceCount >= limit) return exit(sequenceCount, row);
+                    }
+                }
+                if (row <= n - SEQUENCE_LENGTH && col <= n - SEQUENCE_LENGTH) {
+                    if (checkDiagonalDescending(matrix, row, col)) {
+                        sequenceCount++;
+                        if (sequenceCount >= limit) return exit(sequenceCount, row);
+                    }
+                }
+            }
+        }
+        return DetectionEngine.result(sequenceCount, -1);
+    }
+
+    /** Corte en {@code row}: la fila de corte es exclusiva. */
+    private static long exit(int sequenceCount, int row) {
+        return DetectionEngine.result(sequenceCount, row + 1);
+    }
+
+    private boolean checkHorizontal(PackedDnaMatrix matrix, int row, int col) {
+        final int base = matrix.base(row, col);
+        return matrix.base(row, col + 1) == base &&
+                matrix.base(row, col + 2) == base &&
+                matrix.base(row, col + 3) == base;
+    }
+    private boolean checkVertical(PackedDnaMatrix matrix, int row, int col) {
+        final int base = matrix.base(row, col);
+        return matrix.base(row + 1, col) == base &&
+                matrix.base(row + 2, col) == base &&
+                matrix.base(row + 3, col) == base;
+    }
+    private boolean checkDiagonalAscending(PackedDnaMatrix matrix, int row, int col) {
+        final int base = matrix.base(row, col);
+        return matrix.base(row - 1, col + 1) == base &&
+                matrix.base(row - 2, col + 2) == base &&
+                matrix.base(row - 3, col + 3) == base;
+    }
+    private boolean checkDiagonalDescending(PackedDnaMatrix matrix, int row, int col) {
+        final int base = matrix.base(row, col);
+        return matrix.base(row + 1, col + 1) == base &&
+                matrix.base(row + 2, col + 2) == base &&
+                matrix.base(row + 3, col + 3) == base;
+    }
+}
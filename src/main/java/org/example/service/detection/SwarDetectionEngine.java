@@ -0,0 +1,76 @@
+package org.example.service.detection;
+
+/**
+ * Motor SWAR: compara 32 bases por operación sobre la matriz empaquetada a 2 bits.
+ *
+ * <p>Para cada palabra de la fila de origen se construye una máscara con el bit bajo de cada lane
+ * encendido cuando la base es igual a la de la otra fila (desplazada 0 a 3 bases según la
+ * dirección). El AND de las tres máscaras marca los orígenes de secuencias de cuatro y un
+ * {@code bitCount} las cuenta. Las secuencias se asignan a la misma fila que en el motor escalar.
+ */
+public class SwarDetectionEngine implements DetectionEngine {
+
+    private static final long LOW_LANE_BITS = 0x5555_5555_5555_5555L;
+
+    @Override
+    public long scan(PackedDnaMatrix matrix, int fromRow, int toRow, int limit) {
+        final int n = matrix.size();
+        if (n < SEQUENCE_LENGTH) {
+            return DetectionEngine.result(0, -1);
+        }
+        final int lastStart = n - SEQUENCE_LENGTH;
+        int sequenceCount = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            final boolean down = row <= lastStart;
+            final boolean up = row >= SEQUENCE_LENGTH - 1;
+            for (int w = 0; w < matrix.wordsPerRow(); w++) {
+                final long origin = matrix.word(row, w);
+                final long startMask = laneMask(w, lastStart + 1);
+
+                long found = equalLanes(origin, matrix.shiftedWord(row, w, 1))
+                        & equalLanes(origin, matrix.shiftedWord(row, w, 2))
+                        & equalLanes(origin, matrix.shiftedWord(row, w, 3));
+                sequenceCount += Long.bitCount(found & startMask);
+
+                if (down) {
+                    long vertical = equalLanes(origin, matrix.word(row + 1, w))
+                            & equalLanes(origin, matrix.word(row + 2, w))
+                            & equalLanes(origin, matrix.word(row + 3, w));
+                    long descending = equalLanes(origin, matrix.shiftedWord(row + 1, w, 1))
+                            & equalLanes(origin, matrix.shiftedWord(row + 2, w, 2))
+                            & equalLanes(origin, matrix.shiftedWord(row + 3, w, 3));
+                    sequenceCount += Long.bitCount(vertical & laneMask(w, n))
+                            + Long.bitCount(descending & startMask);
+                }
+                if (up) {
+                    long ascending = equalLanes(origin, matrix.shiftedWord(row - 1, w, 1))
+                            & equalLanes(origin, matrix.shiftedWord(row - 2, w, 2))
+                            & equalLanes(origin, matrix.shiftedWord(row - 3, w, 3));
+                    sequenceCount += Long.bitCount(ascending & startMask);
+                }
+            }
+            if (sequenceCount >= limit) {
+                return DetectionEngine.result(sequenceCount, row + 1);  // ← EARLY TERMINATION
+            }
+        }
+        return DetectionEngine.result(sequenceCount, -1);
+    }
+
+    /** Bit bajo de cada lane encendido cuando las dos bases del lane coinciden. */
+    private static long equalLanes(long a, long b) {
+        final long diff = a ^ b;
+        return ~(diff | (diff >>> 1)) & LOW_LANE_BITS;
+    }
+
+    /** Bits bajos de los lanes de la palabra {@code index} cuya columna es menor que {@code limit}. */
+    private static long laneMask(int index, int limit) {
+        final int remaining = limit - index * PackedDnaMatrix.BASES_PER_WORD;
+        if (remaining >= PackedDnaMatrix.BASES_PER_WORD) {
+            return LOW_LANE_BITS;
+        }
+        if (remaining <= 0) {
+            return 0L;
+        }
+        return LOW_LANE_BITS & ((1L << (2 * remaining)) - 1);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.example.dto.DnaRequest;
+import org.example.service.DnaKeyFactory;
+import org.example.service.EncodedDna;
+import org.example.service.PipelineMetrics;
+import org.example.service.PipelinePhase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Validación a nivel de request: valida forma y alfabeto, codifica la matriz y calcula su hash en
+ * una sola pasada, y deja el resultado en el request para el resto del pipeline. El error se
+ * reporta sobre el campo {@code dna}, igual que la validación a nivel de campo. Un request leído de
+ * JSON ya llega codificado por {@code DnaRequestDeserializer}; sin filas ni matriz es inválido.
+ */
+public class DnaRequestValidator implements ConstraintValidator<ValidDnaSequence, DnaRequest> {
+
+    private final DnaKeyFactory dnaKeyFactory;
+    private final PipelineMetrics metrics;
+
+    /** Fuera de Spring se usa la configuración por defecto, sin métricas. */
+    public DnaRequestValidator() {
+        this.dnaKeyFactory = DnaKeyFactory.defaults();
+        this.metrics = PipelineMetrics.disabled();
+    }
+
+    @Autowired
+    public DnaRequestValidator(ObjectProvider<DnaKeyFactory> dnaKeyFactory, ObjectProvider<PipelineMetrics> metrics) {
+        this.dnaKeyFactory = dnaKeyFactory.getIfAvailable(DnaKeyFactory::defaults);
+        this.metrics = metrics.getIfAvailable(PipelineMetrics::disabled);
+    }
+
+    @Override
+    public boolean isValid(DnaRequest request, ConstraintValidatorContext context) {
+        if (request == null || request.getEncoded() != null) {
+            return true;
+        }
+        long start = metrics.start();
+        EncodedDna encoded = dnaKeyFactory.tryEncode(request.getDna());
+        metrics.record(PipelinePhase.ENCODE, start);
+        request.setEncoded(encoded);
+        if (encoded != null) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode("dna")
+                .addConstraintViolation();
+        return false;
+    }
+}
@@ -5,8 +5,8 @@ import jakarta.validation.Payload;
 import java.lang.annotation.*;
 
 @Documented
-@Constraint(validatedBy = ValidDnaSequenceValidator.class)
-@Target({ ElementType.FIELD })
+@Constraint(validatedBy = { ValidDnaSequenceValidator.class, DnaRequestValidator.class })
+@Target({ ElementType.FIELD, ElementType.TYPE })
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ValidDnaSequence {
     String message() default "Secuencia de ADN inválida";
@@ -24,7 +24,8 @@ public class ValidDnaSequenceValidator implements ConstraintValidator<ValidDnaSe
             if (row == null || row.length() != n) {
                 return false;
             }
-            for (char c : row.toCharArray()) {
+            for (int i = 0; i < n; i++) {
+                final char c = row.charAt(i);
                 if (c != 'A' && c != 'T' && c != 'C' && c != 'G') {
                     return false;
                 }
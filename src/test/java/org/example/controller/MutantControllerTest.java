@@ -1,22 +1,41 @@
 package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.CacheStatsResponse;
+import org.example.dto.DnaBatchRequest;
+import org.example.dto.DnaBatchResult;
 import org.example.dto.DnaRequest;
 import org.example.dto.StatsResponse;
+import org.example.exception.InvalidPackedDnaException;
+import org.example.service.DnaKeyFactory;
+import org.example.service.EncodedDna;
+import org.example.service.MutantBatchService;
 import org.example.service.MutantService;
+import org.example.service.MutantStreamService;
+import org.example.service.PackedDnaFormat;
 import org.example.service.StatsService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +55,12 @@ class MutantControllerTest {
     @MockitoBean
     private StatsService statsService;
 
+    @MockitoBean
+    private MutantBatchService mutantBatchService;
+
+    @MockitoBean
+    private MutantStreamService mutantStreamService;
+
     // Test 1
     @Test
     @DisplayName("POST /mutant debe retornar 200 OK para ADN mutante")
@@ -51,7 +76,7 @@ class MutantControllerTest {
         };
         DnaRequest request = new DnaRequest(mutantDna);
 
-        when(mutantService.analyzeDna(any(String[].class)))
+        when(mutantService.analyzeDna(any(EncodedDna.class)))
                 .thenReturn(true);  // Mock: es mutante
 
         // ACT & ASSERT
@@ -72,7 +97,7 @@ class MutantControllerTest {
         };
         DnaRequest request = new DnaRequest(humanDna);
 
-        when(mutantService.analyzeDna(any(String[].class)))
+        when(mutantService.analyzeDna(any(EncodedDna.class)))
                 .thenReturn(false);  // Mock: es humano
 
         mockMvc.perform(
@@ -163,7 +188,7 @@ class MutantControllerTest {
         };
         DnaRequest request = new DnaRequest(mutantDna);
 
-        when(mutantService.analyzeDna(any(String[].class)))
+        when(mutantService.analyzeDna(any(EncodedDna.class)))
                 .thenReturn(true);
 
         mockMvc.perform(
@@ -173,4 +198,166 @@ class MutantControllerTest {
                 )
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+    // Test 9
+    @Test
+    @DisplayName("GET /stats/cache debe retornar los contadores de la cache")
+    void testGetCacheStatsReturnsCounters() throws Exception {
+        when(statsService.getCacheStats()).thenReturn(new CacheStatsResponse(true, 5, 20, 7, 2, 3));
+
+        mockMvc.perform(get("/stats/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.hit_count").value(20))
+                .andExpect(jsonPath("$.miss_count").value(7))
+                .andExpect(jsonPath("$.eviction_count").value(2))
+                .andExpect(jsonPath("$.coalesced_requests").value(3));
+    }
+    // Test 10
+    @Test
+    @DisplayName("POST /mutant/batch debe retornar un resultado por matriz")
+    void testCheckMutantBatchReturnsResultsPerItem() throws Exception {
+        DnaBatchRequest request = new DnaBatchRequest(List.of(
+                new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"},
+                new String[]{"ATGX"}));
+        when(mutantBatchService.analyzeBatch(anyList())).thenReturn(List.of(
+                DnaBatchResult.verdict(0, true),
+                DnaBatchResult.invalid(1, "Secuencia de ADN inválida")));
+
+        mockMvc.perform(
+                        post("/mutant/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].index").value(0))
+                .andExpect(jsonPath("$.results[0].mutant").value(true))
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("Secuencia de ADN inválida"));
+    }
+    // Test 11
+    @Test
+    @DisplayName("POST /mutant/batch debe retornar 400 para un lote vacío")
+    void testCheckMutantBatchRejectsEmptyBatch() throws Exception {
+        mockMvc.perform(
+                        post("/mutant/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new DnaBatchRequest(List.of())))
+                )
+                .andExpect(status().isBadRequest());
+    }
+    // Test 12
+    @Test
+    @DisplayName("POST /mutant/stream debe aceptar NDJSON y responder NDJSON")
+    void testCheckMutantStreamAcceptsNdjson() throws Exception {
+        mockMvc.perform(
+                        post("/mutant/stream")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"dna\":[\"AAAA\",\"CCCC\",\"TTAT\",\"AGAC\"]}\n")
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        verify(mutantStreamService).analyzeStream(any(), any());
+    }
+    // Test 13
+    @Test
+    @DisplayName("POST /mutant debe retornar 400 con el mensaje de validación para bases inválidas")
+    void testCheckMutantReturns400ForInvalidBases() throws Exception {
+        DnaRequest request = new DnaRequest(new String[]{"ATGC", "CAXT", "TTAT", "AGAT"});
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Secuencia de ADN inválida"));
+
+        verify(mutantService, never()).analyzeDna(any(EncodedDna.class));
+    }
+    // Test 14
+    @Test
+    @DisplayName("POST /mutant debe retornar 409 si la clave única se viola sin resolverse en el servicio")
+    void testCheckMutantReturns409OnDuplicateKey() throws Exception {
+        DnaRequest request = new DnaRequest(new String[]{"ATGC", "CAGT", "TTAT", "AGGG"});
+        when(mutantService.analyzeDna(any(EncodedDna.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_dna_records_dna_hash"));
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request))
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflict"));
+    }
+    // Test 15
+    @Test
+    @DisplayName("POST /mutant debe codificar las filas al leer el body, con la misma clave que la validación")
+    void testCheckMutantEncodesRowsWhileReading() throws Exception {
+        String[] mutantDna = {"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"};
+        when(mutantService.analyzeDna(any(EncodedDna.class))).thenReturn(true);
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"dna\":[\"ATGCGA\",\"CAGTGC\",\"TTATGT\",\"AGAAGG\",\"CCCCTA\",\"TCACTG\"]}")
+                )
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<EncodedDna> encoded = ArgumentCaptor.forClass(EncodedDna.class);
+        verify(mutantService).analyzeDna(encoded.capture());
+        EncodedDna expected = DnaKeyFactory.defaults().tryEncode(mutantDna);
+        assertEquals(expected.getMatrix(), encoded.getValue().getMatrix());
+        assertEquals(expected.getKey(), encoded.getValue().getKey());
+    }
+    // Test 16
+    @Test
+    @DisplayName("POST /mutant debe rechazar en la primera fila inválida sin leer el resto del body")
+    void testCheckMutantRejectsAtFirstInvalidRow() throws Exception {
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"dna\":[\"ATGC\",\"CAXT\", esto ya no es JSON")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"))
+                .andExpect(jsonPath("$.message").value("Secuencia de ADN inválida"));
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"dna\":[\"ATGC\",\"CAGT\",\"TTAT\"]}")  // faltan filas
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Secuencia de ADN inválida"));
+
+        verify(mutantService, never()).analyzeDna(any(EncodedDna.class));
+    }
+    // Test 17
+    @Test
+    @DisplayName("POST /mutant en formato binario debe responder 403 para un humano y 400 con una trama inválida")
+    void testCheckMutantPacked() throws Exception {
+        byte[] frame = PackedDnaFormat.frame(new String[]{"ATGC", "CAGT", "TTAT", "AGAT"});
+        when(mutantService.analyzePacked(any(InputStream.class)))
+                .thenReturn(false)
+                .thenThrow(new InvalidPackedDnaException("Trama de ADN empaquetado incompleta"));
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(PackedDnaFormat.MEDIA_TYPE)
+                                .content(frame)
+                )
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(
+                        post("/mutant")
+                                .contentType(PackedDnaFormat.MEDIA_TYPE)
+                                .content(new byte[]{0, 0})
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Trama de ADN empaquetado incompleta"));
+
+        verify(mutantService, never()).analyzeDna(any(EncodedDna.class));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.controller;
+
+import org.example.config.MutantProperties;
+import org.example.service.PipelineMetrics;
+import org.example.service.PipelinePhase;
+import org.example.service.RequestTimings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingInterceptorTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Debe medir las fases del request aunque las métricas estén desactivadas")
+    void testCollectsPhasesWhileRequestIsOpen() throws Exception {
+        ServerTimingInterceptor interceptor = new ServerTimingInterceptor(timing(Duration.ZERO, 1.0, 10));
+        PipelineMetrics metrics = PipelineMetrics.disabled();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mutant");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertEquals(0, metrics.start());
+        interceptor.preHandle(request, response, new Object());
+        long start = metrics.start();
+        assertNotEquals(0, start);
+        metrics.matrixSize(6);
+        Thread.sleep(2);
+        assertTrue(metrics.record(PipelinePhase.DETECT, start) > 0);
+
+        RequestTimings timings = RequestTimings.current();
+        assertEquals(6, timings.getMatrixSize());
+        String header = timings.toServerTiming();
+        assertTrue(header.startsWith("detect;dur="), header);
+        assertTrue(header.contains(", total;dur="), header);
+        assertFalse(header.contains("lookup"), header);  // fase que no corrió
+        assertTrue(timings.toLogFields().startsWith("n=6 encode_ms=0.000 lookup_ms=0.000 detect_ms="));
+
+        interceptor.afterCompletion(request, response, new Object(), null);
+        assertNull(RequestTimings.current());
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Solo deben considerarse lentos los requests que superan el umbral, y ninguno con umbral 0")
+    void testSlowThreshold() {
+        ServerTimingInterceptor interceptor = new ServerTimingInterceptor(timing(Duration.ofMillis(100), 1.0, 10));
+        assertFalse(interceptor.isSlow(Duration.ofMillis(99).toNanos()));
+        assertTrue(interceptor.isSlow(Duration.ofMillis(100).toNanos()));
+
+        ServerTimingInterceptor never = new ServerTimingInterceptor(timing(Duration.ZERO, 1.0, 10));
+        assertFalse(never.isSlow(Duration.ofSeconds(30).toNanos()));
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("El registro de requests lentos debe respetar la muestra y el tope por segundo")
+    void testSlowLogIsSampledAndCapped() {
+        ServerTimingInterceptor capped = new ServerTimingInterceptor(timing(Duration.ofMillis(1), 1.0, 2));
+        int logged = 0;
+        for (int i = 0; i < 50; i++) {
+            if (capped.sampled()) {
+                logged++;
+            }
+        }
+        assertTrue(logged >= 2 && logged <= 4, "registrados=" + logged);  // a lo sumo 2 por segundo
+
+        ServerTimingInterceptor none = new ServerTimingInterceptor(timing(Duration.ofMillis(1), 0.0, 100));
+        for (int i = 0; i < 50; i++) {
+            assertFalse(none.sampled());
+        }
+    }
+
+    private static MutantProperties.Timing timing(Duration slowThreshold, double sampleRate, int maxPerSecond) {
+        MutantProperties.Timing config = new MutantProperties().getTiming();
+        config.setEnabled(true);
+        config.setSlowThreshold(slowThreshold);
+        config.setSlowSampleRate(sampleRate);
+        config.setSlowMaxPerSecond(maxPerSecond);
+        return config;
+    }
+}
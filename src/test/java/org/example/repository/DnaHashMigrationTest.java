@@ -0,0 +1,114 @@
+package org.example.repository;
+
+import org.example.service.DnaHashAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnaHashMigrationTest {
+
+    private static final String HEX_HASH = "3f".repeat(32);
+
+    private JdbcTemplate jdbcTemplate;
+    private DnaHashMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migration = new DnaHashMigration(jdbcTemplate);
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Debe convertir los hashes hexadecimales existentes a tag + digest")
+    void testMigratesHexRowsToTaggedKeys() {
+        jdbcTemplate.execute("CREATE TABLE dna_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "dna_hash VARCHAR(255) NOT NULL UNIQUE, is_mutant BOOLEAN NOT NULL, created_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO dna_records (dna_hash, is_mutant) VALUES (?, TRUE)", HEX_HASH);
+
+        migration.migrate();
+
+        byte[] stored = jdbcTemplate.queryForObject("SELECT dna_hash FROM dna_records", byte[].class);
+        assertArrayEquals(tagged(HexFormat.of().parseHex(HEX_HASH)), stored);
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO dna_records (dna_hash, is_mutant) VALUES (?, FALSE)", (Object) stored));
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Debe agregar el tag de SHA-256 a las claves BINARY(32) existentes")
+    void testMigratesUntaggedBinaryRows() {
+        byte[] legacy = HexFormat.of().parseHex(HEX_HASH);
+        jdbcTemplate.execute("CREATE TABLE dna_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "dna_hash BINARY(32) NOT NULL UNIQUE, is_mutant BOOLEAN NOT NULL, created_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO dna_records (dna_hash, is_mutant) VALUES (?, TRUE)", (Object) legacy);
+
+        migration.migrate();
+
+        assertArrayEquals(tagged(legacy),
+                jdbcTemplate.queryForObject("SELECT dna_hash FROM dna_records", byte[].class));
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("No debe modificar una tabla que ya usa el formato actual")
+    void testSkipsCurrentFormat() {
+        jdbcTemplate.execute("CREATE TABLE dna_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "dna_hash VARBINARY(33) NOT NULL UNIQUE, is_mutant BOOLEAN NOT NULL, created_at TIMESTAMP)");
+
+        migration.migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE COLUMN_NAME = 'DNA_HASH_NEW'", Integer.class));
+    }
+
+    // Test 4
+    @Test
+    @DisplayName("Debe rehacer la migración si quedó una columna dna_hash_new a medio llenar")
+    void testRestartsAfterLeftoverNewColumn() {
+        jdbcTemplate.execute("CREATE TABLE dna_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "dna_hash VARCHAR(255) NOT NULL UNIQUE, is_mutant BOOLEAN NOT NULL, created_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO dna_records (dna_hash, is_mutant) VALUES (?, TRUE)", HEX_HASH);
+        jdbcTemplate.execute("ALTER TABLE dna_records ADD COLUMN dna_hash_new VARBINARY(33)");
+
+        migration.migrate();
+
+        byte[] stored = jdbcTemplate.queryForObject("SELECT dna_hash FROM dna_records", byte[].class);
+        assertArrayEquals(tagged(HexFormat.of().parseHex(HEX_HASH)), stored);
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "INSERT INTO dna_records (dna_hash, is_mutant) VALUES (?, FALSE)", (Object) stored));
+    }
+
+    // Test 5
+    @Test
+    @DisplayName("Debe completar una migración cortada después de borrar la columna hexadecimal")
+    void testRenamesAfterInterruptedSwap() {
+        byte[] hash = tagged(HexFormat.of().parseHex(HEX_HASH));
+        jdbcTemplate.execute("CREATE TABLE dna_records (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "dna_hash_new VARBINARY(33) NOT NULL, is_mutant BOOLEAN NOT NULL, created_at TIMESTAMP, "
+                + "CONSTRAINT uk_dna_records_dna_hash UNIQUE (dna_hash_new))");
+        jdbcTemplate.update("INSERT INTO dna_records (dna_hash_new, is_mutant) VALUES (?, TRUE)", (Object) hash);
+
+        migration.migrate();
+
+        assertArrayEquals(hash, jdbcTemplate.queryForObject("SELECT dna_hash FROM dna_records", byte[].class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE COLUMN_NAME = 'DNA_HASH_NEW'", Integer.class));
+    }
+
+    private static byte[] tagged(byte[] sha256) {
+        byte[] key = new byte[33];
+        key[0] = DnaHashAlgorithm.SHA_256.getTag();
+        System.arraycopy(sha256, 0, key, 1, 32);
+        return key;
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.repository;
+
+import org.example.config.MutantProperties;
+import org.example.entity.DnaRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedVerdictStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private MutantProperties.Store config;
+
+    @BeforeEach
+    void setUp() {
+        config = new MutantProperties().getStore();
+        config.setType(MutantProperties.Store.Type.MAPPED);
+        config.setPath(directory.resolve("verdicts.log"));
+        config.setSegmentSize(DataSize.ofBytes(MappedVerdictStore.RECORD_BYTES * 1000L));
+        config.setExpectedRecords(16);
+    }
+
+    // Test 1
+    @ParameterizedTest
+    @EnumSource(MutantProperties.Store.Fsync.class)
+    @DisplayName("Inserciones concurrentes de las mismas claves deben guardar cada una una sola vez")
+    void testConcurrentInsertsAreDeduplicated(MutantProperties.Store.Fsync fsync) throws Exception {
+        config.setFsync(fsync);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (OpenStore store = open()) {
+            List<Future<Integer>> inserted = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                inserted.add(executor.submit(() -> {
+                    int count = 0;
+                    for (int i = 0; i < 3000; i++) {
+                        count += store.get().insertIfAbsent(key(i), null, i % 3 == 0, LocalDateTime.now());
+                    }
+                    return count;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : inserted) {
+                total += future.get();
+            }
+
+            assertEquals(3000, total);
+            assertEquals(3000, store.get().count());
+            assertEquals(1000, store.get().countByIsMutant(true));
+            assertEquals(2000, store.get().countByIsMutant(false));
+            for (int i = 0; i < 3000; i++) {
+                Optional<DnaRecord> record = store.get().findByDnaHash(key(i));
+                assertTrue(record.isPresent());
+                assertEquals(i % 3 == 0, record.get().isMutant());
+                assertArrayEquals(key(i), record.get().getDnaHash());
+            }
+            assertTrue(store.get().findByDnaHash(key(5000)).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Al reabrir el log debe reconstruir el índice y los conteos")
+    void testReopenRebuildsIndex() throws Exception {
+        try (OpenStore store = open()) {
+            for (int i = 0; i < 2500; i++) {
+                store.get().insertIfAbsent(key(i), null, i < 100, LocalDateTime.now());
+            }
+        }
+
+        try (OpenStore store = open()) {
+            assertEquals(2500, store.get().count());
+            assertEquals(100, store.get().countByIsMutant(true));
+            assertTrue(store.get().findByDnaHash(key(42)).orElseThrow().isMutant());
+            assertFalse(store.get().findByDnaHash(key(2499)).orElseThrow().isMutant());
+            assertEquals(0, store.get().insertIfAbsent(key(7), null, false, LocalDateTime.now()));
+            List<byte[]> keys = new ArrayList<>();
+            store.get().forEachKey(keys::add);
+            assertEquals(2500, keys.size());
+        }
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("Un último registro escrito a medias debe descartarse al arrancar")
+    void testTornTailIsDiscarded() throws Exception {
+        try (OpenStore store = open()) {
+            for (int i = 0; i < 10; i++) {
+                store.get().insertIfAbsent(key(i), null, true, LocalDateTime.now());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(config.getPath(), StandardOpenOption.WRITE)) {
+            // byte de la fecha del registro 9 (slot 10, el 0 es el encabezado)
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), MappedVerdictStore.RECORD_BYTES * 10L + 40);
+        }
+
+        try (OpenStore store = open()) {
+            assertEquals(9, store.get().count());
+            assertTrue(store.get().findByDnaHash(key(9)).isEmpty());
+            assertEquals(1, store.get().insertIfAbsent(key(9), null, false, LocalDateTime.now()));
+        }
+        try (OpenStore store = open()) {
+            assertFalse(store.get().findByDnaHash(key(9)).orElseThrow().isMutant());
+        }
+    }
+
+    // Test 4
+    @Test
+    @DisplayName("Un lote con una clave ya guardada debe rechazarse entero")
+    void testBatchWithExistingKeyIsRejected() throws Exception {
+        try (OpenStore store = open()) {
+            store.get().insertIfAbsent(key(1), null, true, LocalDateTime.now());
+
+            assertThrows(DataIntegrityViolationException.class, () -> store.get().insertAll(List.of(
+                    new DnaRecord(key(2), false), new DnaRecord(key(1), false))));
+            assertEquals(1, store.get().count());
+
+            store.get().insertAll(List.of(new DnaRecord(key(2), false), new DnaRecord(key(3), true)));
+            assertEquals(3, store.get().count());
+            assertEquals(2, store.get().findByDnaHashIn(List.of(key(2), key(3), key(4))).size());
+            assertEquals(1, store.get().findExistingHashes(List.of(key(3), key(4))).size());
+        }
+    }
+
+    // Test 5
+    @Test
+    @DisplayName("No debe aceptar la verificación de colisiones, que necesita la matriz guardada")
+    void testRejectsVerifyMode() {
+        MutantProperties properties = new MutantProperties();
+        properties.getStore().setPath(config.getPath());
+        properties.getHash().setVerify(true);
+
+        assertThrows(IllegalStateException.class, () -> new MappedVerdictStore(properties));
+    }
+
+    /** Claves de SHA-256 (tag 1 + 32 bytes) y exactas (tag 3, cortas) alternadas. */
+    private static byte[] key(int i) {
+        if (i % 2 == 1) {
+            return new byte[]{3, 4, (byte) i, (byte) (i >>> 8)};
+        }
+        byte[] key = new byte[DnaRecord.DNA_HASH_LENGTH];
+        new Random(i).nextBytes(key);
+        key[0] = 1;
+        return key;
+    }
+
+    private OpenStore open() throws Exception {
+        return new OpenStore(new MappedVerdictStore(config));
+    }
+
+    private record OpenStore(MappedVerdictStore get) implements AutoCloseable {
+        @Override
+        public void close() throws Exception {
+            get.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.MutantProperties;
+import org.example.entity.DnaRecord;
+import org.example.repository.VerdictStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DnaRecordWriterTest {
+
+    @Mock
+    private VerdictStore verdictStore;
+
+    @Mock
+    private StatsService statsService;
+
+    private MutantProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MutantProperties();
+        properties.getPersistence().setDurability(MutantProperties.Persistence.Durability.ASYNC);
+        properties.getPersistence().setMaxLatency(Duration.ofMillis(1));
+        when(verdictStore.findExistingHashes(any())).thenReturn(List.of());
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Después de apagar, un registro nuevo debe escribirse en el hilo llamador")
+    void testEnqueueAfterShutdownWritesThrough() throws InterruptedException {
+        DnaRecordWriter writer = new DnaRecordWriter(verdictStore, statsService, properties);
+        writer.shutdown();
+
+        writer.enqueue(new DnaRecord(new byte[]{1, 2, 3}, true));
+
+        verify(verdictStore).insertAll(anyList());
+        verify(statsService).recordNewDna(true);
+        assertEquals(0, writer.pending());
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Un lote que falla debe reintentarse de a uno y contar como descartados los que vuelven a fallar")
+    void testFailedBatchIsRetriedAndCountedAsDropped() throws InterruptedException {
+        doThrow(new DataAccessResourceFailureException("base caída")).when(verdictStore).insertAll(anyList());
+        DnaRecordWriter writer = new DnaRecordWriter(verdictStore, statsService, properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        writer.bindTo(registry);
+
+        writer.enqueue(new DnaRecord(new byte[]{1, 2, 3}, true));
+        writer.shutdown();
+
+        verify(verdictStore, times(2)).insertAll(anyList());  // el lote y el reintento del registro
+        assertEquals(1, writer.droppedRecords());
+        assertEquals(1.0, registry.get("mutant.persistence.dropped").functionCounter().count());
+    }
+}
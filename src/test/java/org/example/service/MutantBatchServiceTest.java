@@ -0,0 +1,257 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.MutantProperties;
+import org.example.dto.DnaBatchResult;
+import org.example.entity.DnaRecord;
+import org.example.exception.InvalidPackedDnaException;
+import org.example.repository.DnaRecordRepository;
+import org.example.repository.VerdictStore;
+import org.example.service.detection.PackedDnaMatrix;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MutantBatchServiceTest {
+
+    @Mock
+    private MutantDetector mutantDetector;
+
+    @Mock
+    private DnaRecordRepository dnaRecordRepository;
+
+    @Spy
+    private VerdictCache verdictCache = VerdictCache.disabled();
+
+    @Mock
+    private DnaRecordWriter dnaRecordWriter;
+
+    @Mock
+    private StatsService statsService;
+
+    private MutantBatchService batchService;
+
+    private final String[] mutantDna = {"ATGC", "CAGT", "TTAT", "AGGG"};
+    private final String[] humanDna = {"ATGC", "CAGT", "TTAT", "AGAT"};
+    private final PackedDnaMatrix mutantMatrix = PackedDnaMatrix.encode(mutantDna);
+    private final PackedDnaMatrix humanMatrix = PackedDnaMatrix.encode(humanDna);
+    private final String[] invalidDna = {"ATGC", "CAXT", "TTAT", "AGAT"};
+
+    @BeforeEach
+    void setUp() {
+        batchService = batchService(DnaKeyFactory.defaults());
+    }
+
+    /** Servicio con los mocks de la clase y la resolución compartida armada sobre ellos. */
+    private MutantBatchService batchService(DnaKeyFactory factory) {
+        return batchService(factory, DnaKeyFilter.disabled());
+    }
+
+    private MutantBatchService batchService(DnaKeyFactory factory, DnaKeyFilter filter) {
+        return batchService(factory, filter, PipelineMetrics.disabled());
+    }
+
+    private MutantBatchService batchService(DnaKeyFactory factory, DnaKeyFilter filter, PipelineMetrics metrics) {
+        DnaResolver resolver = new DnaResolver(mutantDetector, dnaRecordRepository, verdictCache, statsService,
+                dnaRecordWriter, factory, filter, new RequestCoalescer(new MutantProperties()), metrics);
+        return new MutantBatchService(verdictCache, factory, resolver, metrics, new MutantProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Debe devolver un resultado por matriz en el orden de entrada")
+    void testResultsKeepInputOrder() {
+        byte[] knownHash = DnaKeyFactory.defaults().tryEncode(humanDna).getKey().bytes();
+        when(dnaRecordRepository.findByDnaHashIn(any()))
+                .thenReturn(List.of(new DnaRecord(knownHash, false)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+
+        List<DnaBatchResult> results = batchService.analyzeBatch(List.of(mutantDna, invalidDna, humanDna));
+
+        assertEquals(3, results.size());
+        assertEquals(DnaBatchResult.verdict(0, true), results.get(0));
+        assertEquals(1, results.get(1).getIndex());
+        assertNull(results.get(1).getMutant());
+        assertNotNull(results.get(1).getError());
+        assertEquals(DnaBatchResult.verdict(2, false), results.get(2));
+        verify(dnaRecordRepository, times(1)).findByDnaHashIn(any());
+        verify(mutantDetector, never()).isMutant(humanMatrix);
+    }
+    // Test 2
+    @Test
+    @DisplayName("Debe detectar una sola vez e insertar en un único lote los ADN nuevos")
+    void testDetectsOnceAndInsertsInOneBatch() {
+        when(dnaRecordRepository.findByDnaHashIn(any())).thenReturn(List.of());
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(mutantDetector.isMutant(humanMatrix)).thenReturn(false);
+
+        List<DnaBatchResult> results = batchService.analyzeBatch(List.of(mutantDna, humanDna, mutantDna));
+
+        assertTrue(results.get(0).getMutant());
+        assertFalse(results.get(1).getMutant());
+        assertTrue(results.get(2).getMutant());
+        verify(mutantDetector, times(1)).isMutant(mutantMatrix);
+        verify(dnaRecordWriter, times(1)).insertAll(argThat(records -> records.size() == 2));
+    }
+    // Test 3
+    @Test
+    @DisplayName("No debe consultar la base de datos para ADN cacheados")
+    void testCachedVerdictsSkipDatabase() {
+        when(verdictCache.getIfPresent(any(DnaKey.class))).thenReturn(true);
+
+        List<DnaBatchResult> results = batchService.analyzeBatch(List.of(mutantDna, humanDna));
+
+        assertTrue(results.get(0).getMutant());
+        assertTrue(results.get(1).getMutant());
+        verify(dnaRecordRepository, never()).findByDnaHashIn(any());
+        verify(dnaRecordWriter, never()).insertAll(any());
+    }
+    // Test 4
+    @Test
+    @DisplayName("Si falla la escritura del lote no debe publicar los veredictos nuevos en la cache")
+    void testFailedFlushDoesNotPopulateCache() {
+        byte[] knownHash = DnaKeyFactory.defaults().tryEncode(humanDna).getKey().bytes();
+        when(dnaRecordRepository.findByDnaHashIn(any()))
+                .thenReturn(List.of(new DnaRecord(knownHash, false)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordWriter.insertAll(any())).thenThrow(new IllegalStateException("base caída"));
+
+        assertThrows(IllegalStateException.class,
+                () -> batchService.analyzeBatch(List.of(mutantDna, humanDna)));
+
+        verify(verdictCache).put(DnaKey.of(knownHash), false);  // ya estaba guardado
+        verify(verdictCache, never()).put(DnaKeyFactory.defaults().tryEncode(mutantDna).getKey(), true);
+    }
+    // Test 5
+    @Test
+    @DisplayName("En modo verificación debe resolver con SHA-256 los ADN cuya huella colisiona")
+    void testVerifiedCollisionUsesSha256Key() {
+        DnaKeyFactory murmur = new DnaKeyFactory(DnaHashAlgorithm.MURMUR3_128, true, 0);
+        MutantBatchService verifying = batchService(murmur);
+        DnaRecord otherDna = new DnaRecord(murmur.tryEncode(mutantDna).getKey().bytes(), false);
+        otherDna.setDnaPacked(humanMatrix.toBytes());  // misma huella, otro ADN
+        when(dnaRecordRepository.findByDnaHashIn(any()))
+                .thenReturn(List.of(otherDna));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+
+        try {
+            List<DnaBatchResult> results = verifying.analyzeBatch(List.<String[]>of(mutantDna));
+
+            assertTrue(results.get(0).getMutant());
+            verify(dnaRecordRepository, times(1)).findByDnaHashIn(any());
+            verify(dnaRecordRepository).findByDnaHash(argThat(hash -> hash[0] == DnaHashAlgorithm.SHA_256.getTag()));
+            verify(dnaRecordWriter).insertAll(argThat(records -> records.stream().allMatch(record ->
+                    record.getDnaHash()[0] == DnaHashAlgorithm.SHA_256.getTag())));
+        } finally {
+            verifying.shutdown();
+        }
+    }
+    // Test 6
+    @Test
+    @DisplayName("La consulta IN debe incluir solo los ADN que el filtro de claves no descarta")
+    void testFilterDropsDefinitelyNewKeysFromQuery() {
+        DnaKeyFilter filter = new DnaKeyFilter(mock(VerdictStore.class), new MutantProperties());
+        filter.initialize();
+        DnaKey humanKey = DnaKeyFactory.defaults().tryEncode(humanDna).getKey();
+        filter.put(humanKey);
+        MutantBatchService filtered = batchService(DnaKeyFactory.defaults(), filter);
+        when(dnaRecordRepository.findByDnaHashIn(any()))
+                .thenReturn(List.of(new DnaRecord(humanKey.bytes(), false)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+
+        try {
+            List<DnaBatchResult> results = filtered.analyzeBatch(List.of(mutantDna, humanDna));
+
+            assertTrue(results.get(0).getMutant());
+            assertFalse(results.get(1).getMutant());
+            verify(dnaRecordRepository).findByDnaHashIn(argThat(hashes -> hashes.size() == 1));
+            assertTrue(filter.mightContain(DnaKeyFactory.defaults().tryEncode(mutantDna).getKey()));
+        } finally {
+            filtered.shutdown();
+        }
+    }
+    // Test 7
+    @Test
+    @DisplayName("Si falla la escritura del lote no debe agregar las claves nuevas al filtro")
+    void testFailedFlushDoesNotPopulateFilter() {
+        DnaKeyFilter filter = new DnaKeyFilter(mock(VerdictStore.class), new MutantProperties());
+        filter.initialize();
+        MutantBatchService filtered = batchService(DnaKeyFactory.defaults(), filter);
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordWriter.insertAll(any())).thenThrow(new IllegalStateException("base caída"));
+
+        try {
+            assertThrows(IllegalStateException.class, () -> filtered.analyzeBatch(List.<String[]>of(mutantDna)));
+
+            assertFalse(filter.mightContain(DnaKeyFactory.defaults().tryEncode(mutantDna).getKey()));
+        } finally {
+            filtered.shutdown();
+        }
+    }
+    // Test 8
+    @Test
+    @DisplayName("Cada clave de la consulta IN debe contarse como acierto o fallo según la fila devuelta")
+    void testLookupOutcomeFollowsReturnedRows() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MutantBatchService measured = batchService(DnaKeyFactory.defaults(), DnaKeyFilter.disabled(),
+                new PipelineMetrics(registry));
+        byte[] knownHash = DnaKeyFactory.defaults().tryEncode(humanDna).getKey().bytes();
+        when(dnaRecordRepository.findByDnaHashIn(any()))
+                .thenReturn(List.of(new DnaRecord(knownHash, false)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+
+        try {
+            List<DnaBatchResult> results = measured.analyzeBatch(List.of(mutantDna, humanDna));
+
+            assertTrue(results.get(0).getMutant());
+            assertFalse(results.get(1).getMutant());
+            assertEquals(1.0, registry.get("mutant.db.lookups").tag("outcome", "hit").counter().count());
+            assertEquals(1.0, registry.get("mutant.db.lookups").tag("outcome", "miss").counter().count());
+            verify(dnaRecordWriter).insertAll(argThat(records -> records.size() == 1
+                    && records.stream().noneMatch(record -> Arrays.equals(knownHash, record.getDnaHash()))));
+        } finally {
+            measured.shutdown();
+        }
+    }
+    // Test 9
+    @Test
+    @DisplayName("Un lote binario debe informar por índice el ADN inválido y rechazar la trama con bytes de más")
+    void testPackedBatchReportsInvalidItems() throws IOException {
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(mutantDetector.isMutant(humanMatrix)).thenReturn(false);
+        byte[] frame = PackedDnaFormat.batchFrame(List.of(mutantDna, new String[0], humanDna));
+
+        List<DnaBatchResult> results = batchService.analyzePackedBatch(new ByteArrayInputStream(frame));
+
+        assertEquals(3, results.size());
+        assertEquals(DnaBatchResult.verdict(0, true), results.get(0));
+        assertEquals(1, results.get(1).getIndex());
+        assertNull(results.get(1).getMutant());
+        assertNotNull(results.get(1).getError());
+        assertEquals(DnaBatchResult.verdict(2, false), results.get(2));
+
+        byte[] trailing = Arrays.copyOf(frame, frame.length + 1);
+        assertThrows(InvalidPackedDnaException.class,
+                () -> batchService.analyzePackedBatch(new ByteArrayInputStream(trailing)));
+    }
+}
@@ -3,6 +3,13 @@ package org.example.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,7 +113,7 @@ class MutantDetectorTest {
     @Test
     @DisplayName("Debe rechazar ADN nulo")
     void testNullDna() {
-        assertFalse(detector.isMutant(null));
+        assertFalse(detector.isMutant((String[]) null));
     }
     // Test 8
     @Test
@@ -233,4 +240,35 @@ class MutantDetectorTest {
         };
         assertFalse(detector.isMutant(dna));
     }
-}
\ No newline at end of file
+
+    // --- EVENTOS JFR ---
+    // Test 17
+    @Test
+    @DisplayName("Con el evento JFR habilitado debe registrar tamaño, conteo y fila de corte")
+    void testEmitsDetectionEventWithEarlyExitRow() throws Exception {
+        String[] dna = new String[40];
+        for (int row = 0; row < dna.length; row++) {
+            dna[row] = (row % 2 == 0 ? "ACGT" : "TGCA").repeat(10);
+        }
+        dna[35] = "AAAA" + "CCCC" + dna[35].substring(8);  // dos secuencias en la fila 35
+
+        Path file = Files.createTempFile("detection", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.Detection");
+            recording.start();
+            assertTrue(detector.isMutant(dna));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(40, event.getInt("matrixSize"));
+        assertEquals(2, event.getInt("sequencesFound"));
+        assertEquals(36, event.getInt("earlyExitRow"));  // la fila 35 alcanza el límite, en la misma pasada
+        assertTrue(event.getBoolean("mutant"));
+        assertFalse(event.getBoolean("parallel"));
+    }
+}
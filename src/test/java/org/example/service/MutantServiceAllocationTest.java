@@ -0,0 +1,64 @@
+package org.example.service;
+
+import com.sun.management.ThreadMXBean;
+import org.example.config.MutantProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Presupuesto de memoria del camino de un ADN repetido. Corre aparte ({@code ./gradlew allocationTest})
+ * y sin Mockito: el mock maker inline instrumenta las clases que mockea o espía y sus chequeos
+ * reservan memoria en cada llamada, incluso en instancias reales.
+ */
+@Tag("allocation")
+class MutantServiceAllocationTest {
+
+    // Test 1
+    @Test
+    @DisplayName("Un ADN repetido no debe reservar memoria más allá de su matriz codificada")
+    void testCacheHitPathAllocationBudget() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        // sin JIT no hay escape analysis, y un agente (JaCoCo) reserva memoria en cada método
+        List<String> jvmArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        assumeTrue(ManagementFactory.getCompilationMXBean() != null && !jvmArguments.contains("-Xint"),
+                "JIT deshabilitado");
+        assumeTrue(jvmArguments.stream().noneMatch(argument -> argument.startsWith("-javaagent")),
+                "agente Java activo");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        DnaKeyFactory factory = new DnaKeyFactory(DnaHashAlgorithm.SHA_256, false, 0);
+        VerdictCache cache = new VerdictCache(new MutantProperties());
+        // sin resolución: todas las llamadas tienen que salir de la cache
+        MutantService service = new MutantService(cache, factory, null, PipelineMetrics.disabled());
+        String[] dna = {"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"};
+        EncodedDna encoded = factory.tryEncode(dna);
+        cache.put(encoded.getKey(), false);
+
+        // la ronda más baja, para no contar las que corren antes de que el JIT compile el camino
+        long hitBytes = Long.MAX_VALUE;
+        long requestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                assertFalse(service.analyzeDna(encoded));
+            }
+            hitBytes = Math.min(hitBytes, (threads.getCurrentThreadAllocatedBytes() - before) / 10_000);
+            before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                assertFalse(service.analyzeDna(dna));
+            }
+            requestBytes = Math.min(requestBytes, (threads.getCurrentThreadAllocatedBytes() - before) / 10_000);
+        }
+
+        // acierto en cache: nada; validar y hashear: la matriz, la clave y el EncodedDna (192 bytes)
+        assertTrue(hitBytes <= 16, "acierto en cache: " + hitBytes + " bytes por llamada");
+        assertTrue(requestBytes <= 256, "validar, hashear y acertar: " + requestBytes + " bytes por llamada");
+    }
+}
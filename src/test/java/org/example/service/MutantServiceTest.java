@@ -1,19 +1,38 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.config.MutantProperties;
 import org.example.entity.DnaRecord;
 import org.example.exception.DnaHashCalculationException;
+import org.example.exception.InvalidPackedDnaException;
 import org.example.repository.DnaRecordRepository;
+import org.example.repository.VerdictStore;
+import org.example.service.detection.PackedDnaMatrix;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,23 +44,65 @@ class MutantServiceTest {
     @Mock
     private DnaRecordRepository dnaRecordRepository;
 
-    @InjectMocks
+    @Spy
+    private VerdictCache verdictCache = VerdictCache.disabled();
+
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private DnaRecordWriter dnaRecordWriter;
+
+    @Spy
+    private DnaKeyFactory dnaKeyFactory = new DnaKeyFactory(DnaHashAlgorithm.SHA_256, false, 0);
+
+    @Spy
+    private DnaKeyFilter dnaKeyFilter = DnaKeyFilter.disabled();
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(new MutantProperties());
+
+    @Spy
+    private PipelineMetrics metrics = PipelineMetrics.disabled();
+
     private MutantService mutantService;
 
     private final String[] mutantDna = {"ATGC", "CAGT", "TTAT", "AGGG"};
     private final String[] humanDna = {"ATGC", "CAGT", "TTAT", "AGAT"};
+    private final PackedDnaMatrix mutantMatrix = PackedDnaMatrix.encode(mutantDna);
+    private final PackedDnaMatrix humanMatrix = PackedDnaMatrix.encode(humanDna);
+
+    @BeforeEach
+    void setUp() {
+        mutantService = service(dnaKeyFactory);
+    }
+
+    /** Servicio con los mocks de la clase y la resolución compartida armada sobre ellos. */
+    private MutantService service(DnaKeyFactory factory) {
+        return service(factory, dnaKeyFilter);
+    }
+
+    private MutantService service(DnaKeyFactory factory, DnaKeyFilter filter) {
+        return service(factory, filter, metrics);
+    }
+
+    private MutantService service(DnaKeyFactory factory, DnaKeyFilter filter, PipelineMetrics metrics) {
+        DnaResolver resolver = new DnaResolver(mutantDetector, dnaRecordRepository, verdictCache, statsService,
+                dnaRecordWriter, factory, filter, requestCoalescer, metrics);
+        return new MutantService(verdictCache, factory, resolver, metrics);
+    }
 
     // Test 1
     @Test
     @DisplayName("Debe analizar ADN mutante y guardarlo en DB")
     void testAnalyzeMutantDnaAndSave() {
         // ARRANGE (Preparar)
-        when(dnaRecordRepository.findByDnaHash(anyString()))
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
                 .thenReturn(Optional.empty());  // No existe en BD
-        when(mutantDetector.isMutant(mutantDna))
+        when(mutantDetector.isMutant(mutantMatrix))
                 .thenReturn(true);  // Es mutante
-        when(dnaRecordRepository.save(any(DnaRecord.class)))
-                .thenReturn(new DnaRecord());  // Guardado exitoso
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any()))
+                .thenReturn(1);  // Insertado
 
         // ACT (Actuar)
         boolean result = mutantService.analyzeDna(mutantDna);
@@ -50,33 +111,33 @@ class MutantServiceTest {
         assertTrue(result);
 
         // VERIFY (Verificar interacciones)
-        verify(mutantDetector, times(1)).isMutant(mutantDna);
-        verify(dnaRecordRepository, times(1)).save(any(DnaRecord.class));
+        verify(mutantDetector, times(1)).isMutant(mutantMatrix);
+        verify(dnaRecordRepository, times(1)).insertIfAbsent(any(), any(), anyBoolean(), any());
     }
     // Test 2
     @Test
     @DisplayName("Debe analizar ADN humano y guardarlo en DB")
     void testAnalyzeHumanDnaAndSave() {
-        when(dnaRecordRepository.findByDnaHash(anyString()))
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
                 .thenReturn(Optional.empty());
-        when(mutantDetector.isMutant(humanDna))
+        when(mutantDetector.isMutant(humanMatrix))
                 .thenReturn(false);  // Es humano
-        when(dnaRecordRepository.save(any(DnaRecord.class)))
-                .thenReturn(new DnaRecord());
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any()))
+                .thenReturn(1);
 
         boolean result = mutantService.analyzeDna(humanDna);
 
         assertFalse(result);
-        verify(mutantDetector, times(1)).isMutant(humanDna);
-        verify(dnaRecordRepository, times(1)).save(any(DnaRecord.class));
+        verify(mutantDetector, times(1)).isMutant(humanMatrix);
+        verify(dnaRecordRepository, times(1)).insertIfAbsent(any(), any(), anyBoolean(), any());
     }
     // Test 3
     @Test
     @DisplayName("Debe retornar resultado cacheado si el ADN ya fue analizado")
     void testReturnCachedResultForAnalyzedDna() {
         // ARRANGE
-        DnaRecord cachedRecord = new DnaRecord("somehash", true);
-        when(dnaRecordRepository.findByDnaHash(anyString()))
+        DnaRecord cachedRecord = new DnaRecord(new byte[32], true);
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
                 .thenReturn(Optional.of(cachedRecord));  // YA existe en BD
 
         // ACT
@@ -86,39 +147,362 @@ class MutantServiceTest {
         assertTrue(result);
 
         // VERIFY - NO debe llamar al detector ni guardar
-        verify(mutantDetector, never()).isMutant(any());
-        verify(dnaRecordRepository, never()).save(any());
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordRepository, never()).insertIfAbsent(any(), any(), anyBoolean(), any());
     }
     // Test 4
     @Test
     @DisplayName("Debe generar hash consistente para el mismo ADN")
     void testConsistentHashGeneration() {
-        when(dnaRecordRepository.findByDnaHash(anyString()))
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
                 .thenReturn(Optional.empty());
-        when(mutantDetector.isMutant(any()))
+        when(mutantDetector.isMutant(any(PackedDnaMatrix.class)))
                 .thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
 
         mutantService.analyzeDna(mutantDna);
         mutantService.analyzeDna(mutantDna);  // Mismo DNA otra vez
 
         // Debe buscar por el mismo hash ambas veces
-        verify(dnaRecordRepository, times(2)).findByDnaHash(anyString());
+        verify(dnaRecordRepository, times(2)).findByDnaHash(any(byte[].class));
     }
     // Test 5
     @Test
     @DisplayName("Debe guardar registro con hash correcto")
     void testSavesRecordWithCorrectHash() {
-        when(dnaRecordRepository.findByDnaHash(anyString()))
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
                 .thenReturn(Optional.empty());
-        when(mutantDetector.isMutant(mutantDna))
+        when(mutantDetector.isMutant(mutantMatrix))
                 .thenReturn(true);
 
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
+
         mutantService.analyzeDna(mutantDna);
 
-        verify(dnaRecordRepository).save(argThat(record ->
-                record.getDnaHash() != null &&
-                        record.getDnaHash().length() == 64 &&  // SHA-256 = 64 chars hex
-                        record.isMutant()
-        ));
+        verify(dnaRecordRepository).insertIfAbsent(
+                argThat(hash -> hash != null && hash.length == 33),  // tag + SHA-256 binario de 32 bytes
+                isNull(), eq(true), any());
+    }
+    // Test 6
+    @Test
+    @DisplayName("Debe responder desde la cache sin consultar la base de datos")
+    void testReturnVerdictFromCacheWithoutDatabase() {
+        when(verdictCache.getIfPresent(any(DnaKey.class))).thenReturn(true);
+
+        boolean result = mutantService.analyzeDna(mutantDna);
+
+        assertTrue(result);
+        verify(dnaRecordRepository, never()).findByDnaHash(any(byte[].class));
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordRepository, never()).insertIfAbsent(any(), any(), anyBoolean(), any());
+    }
+    // Test 7
+    @Test
+    @DisplayName("Debe cachear el veredicto encontrado en la base de datos y el recién calculado")
+    void testPopulatesCacheAfterDatabaseHitAndDetection() {
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
+                .thenReturn(Optional.of(new DnaRecord(new byte[32], false)))
+                .thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+
+        assertFalse(mutantService.analyzeDna(humanDna));
+        assertTrue(mutantService.analyzeDna(mutantDna));
+
+        verify(verdictCache).put(any(DnaKey.class), eq(false));
+        verify(verdictCache).put(any(DnaKey.class), eq(true));
+    }
+    // Test 8
+    @Test
+    @DisplayName("Debe actualizar las estadísticas solo al insertar un registro nuevo")
+    void testRecordsStatsOnlyForNewRecords() {
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new DnaRecord(new byte[32], true)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
+
+        mutantService.analyzeDna(mutantDna);
+        mutantService.analyzeDna(mutantDna);
+
+        verify(statsService, times(1)).recordNewDna(true);
+    }
+    // Test 9
+    @Test
+    @DisplayName("En modo write-behind debe encolar el registro en lugar de guardarlo")
+    void testEnqueuesRecordInWriteBehindMode() {
+        when(dnaRecordWriter.isWriteBehind()).thenReturn(true);
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(humanMatrix)).thenReturn(false);
+
+        boolean result = mutantService.analyzeDna(humanDna);
+
+        assertFalse(result);
+        verify(dnaRecordWriter).enqueue(argThat(record -> !record.isMutant()));
+        verify(dnaRecordRepository, never()).insertIfAbsent(any(), any(), anyBoolean(), any());
+        verify(statsService, never()).recordNewDna(anyBoolean());
+    }
+    // Test 10
+    @Test
+    @DisplayName("La clave calculada al codificar debe ser el SHA-256 del ADN concatenado")
+    void testEncodedHashMatchesSha256OfJoinedDna() throws Exception {
+        byte[] expected = MessageDigest.getInstance("SHA-256")
+                .digest(String.join("", mutantDna).getBytes(StandardCharsets.UTF_8));
+
+        EncodedDna encoded = dnaKeyFactory.tryEncode(mutantDna);
+
+        byte[] key = encoded.getKey().bytes();
+        assertEquals(DnaHashAlgorithm.SHA_256.getTag(), key[0]);
+        assertArrayEquals(expected, Arrays.copyOfRange(key, 1, key.length));
+        assertEquals(mutantMatrix, encoded.getMatrix());
+    }
+    // Test 11
+    @Test
+    @DisplayName("Debe rechazar ADN inválido sin consultar la base de datos")
+    void testRejectsInvalidDnaBeforeLookup() {
+        assertNull(dnaKeyFactory.tryEncode(new String[]{"ATGC", "CAXT", "TTAT", "AGAT"}));
+        assertNull(dnaKeyFactory.tryEncode(new String[]{"ATGC", "CAG", "TTAT", "AGAT"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> mutantService.analyzeDna(new String[]{"ATGC", "CAXT", "TTAT", "AGAT"}));
+        verifyNoInteractions(dnaRecordRepository, mutantDetector);
+    }
+    // Test 12
+    @Test
+    @DisplayName("La huella Murmur3 debe llevar su tag y distinguir ADN distintos")
+    void testMurmurKeysAreTaggedAndDistinct() {
+        DnaKeyFactory murmur = new DnaKeyFactory(DnaHashAlgorithm.MURMUR3_128, false, 0);
+
+        DnaKey mutantKey = murmur.tryEncode(mutantDna).getKey();
+
+        assertEquals(DnaHashAlgorithm.MURMUR3_128.getKeyLength(), mutantKey.bytes().length);
+        assertEquals(DnaHashAlgorithm.MURMUR3_128.getTag(), mutantKey.bytes()[0]);
+        assertEquals(mutantKey, murmur.tryEncode(mutantDna.clone()).getKey());
+        assertNotEquals(mutantKey, murmur.tryEncode(humanDna).getKey());
+        assertNotEquals(mutantKey, dnaKeyFactory.tryEncode(mutantDna).getKey());
+    }
+    // Test 13
+    @Test
+    @DisplayName("En modo verificación una colisión de huella debe resolverse con la clave SHA-256")
+    void testVerifiedCollisionFallsBackToSha256() {
+        MutantService verifying = service(new DnaKeyFactory(DnaHashAlgorithm.MURMUR3_128, true, 0));
+        DnaRecord otherDna = new DnaRecord(new byte[17], false);
+        otherDna.setDnaPacked(humanMatrix.toBytes());
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
+                .thenReturn(Optional.of(otherDna))  // misma huella, otro ADN
+                .thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
+
+        assertTrue(verifying.analyzeDna(mutantDna));
+
+        verify(dnaRecordRepository, times(2)).findByDnaHash(any(byte[].class));
+        verify(dnaRecordRepository).insertIfAbsent(argThat(hash -> hash[0] == DnaHashAlgorithm.SHA_256.getTag()),
+                isNull(), eq(true), any());
+    }
+    // Test 14
+    @Test
+    @DisplayName("Las matrices chicas deben usar la matriz exacta como clave, sin hash")
+    void testSmallMatricesUseExactKeys() {
+        DnaKeyFactory exact = new DnaKeyFactory(DnaHashAlgorithm.SHA_256, false, DnaKeyFactory.MAX_EXACT_SIZE);
+
+        byte[] key = exact.tryEncode(mutantDna).getKey().bytes();
+
+        // tag, N y 16 bases a 2 bits = 4 bytes: fila 0 "ATGC" = A(0) T(3) G(2) C(1)
+        assertArrayEquals(new byte[]{DnaKeyFactory.EXACT_KEY_TAG, 4, (byte) 0b01_10_11_00, (byte) 0b11_10_00_01,
+                (byte) 0b11_00_11_11, (byte) 0b10_10_10_00}, key);
+        assertNotEquals(exact.tryEncode(humanDna).getKey(), exact.tryEncode(mutantDna).getKey());
+
+        String[] large = square(DnaKeyFactory.MAX_EXACT_SIZE + 1);
+        assertEquals(DnaHashAlgorithm.SHA_256.getTag(), exact.tryEncode(large).getKey().bytes()[0]);
+        assertEquals(DnaRecord.DNA_HASH_LENGTH,
+                exact.tryEncode(square(DnaKeyFactory.MAX_EXACT_SIZE)).getKey().bytes().length);
+    }
+
+    // Test 15
+    @Test
+    @DisplayName("Con la configuración por defecto, un 6x6 guardado con su SHA-256 debe encontrarse en la BD")
+    void testDefaultKeysFindStoredSha256Rows() throws Exception {
+        String[] dna = {"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"};
+        byte[] storedHash = new byte[DnaRecord.DNA_HASH_LENGTH];
+        storedHash[0] = DnaHashAlgorithm.SHA_256.getTag();
+        System.arraycopy(MessageDigest.getInstance("SHA-256")
+                .digest(String.join("", dna).getBytes(StandardCharsets.UTF_8)), 0, storedHash, 1, 32);
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class))).thenAnswer(invocation ->
+                Arrays.equals(storedHash, invocation.getArgument(0))
+                        ? Optional.of(new DnaRecord(storedHash, true)) : Optional.empty());
+        MutantService defaults = service(new DnaKeyFactory(new MutantProperties()));
+
+        assertTrue(defaults.analyzeDna(dna));
+
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordRepository, never()).insertIfAbsent(any(), any(), anyBoolean(), any());
+    }
+
+    // Test 16
+    @Test
+    @DisplayName("Con canonización, el ADN transpuesto debe compartir clave y registro")
+    void testTransposedDnaSharesCanonicalKey() {
+        DnaKeyFactory canonical = canonicalFactory(true);
+        String[] transposed = {"ACTA", "TATG", "GGAG", "CTTG"};
+
+        EncodedDna original = canonical.tryEncode(mutantDna);
+        EncodedDna rotated = canonical.tryEncode(transposed);
+
+        assertEquals(original.getKey(), rotated.getKey());
+        assertNotEquals(dnaKeyFactory.tryEncode(mutantDna).getKey(), dnaKeyFactory.tryEncode(transposed).getKey());
+        assertEquals(PackedDnaMatrix.encode(transposed), rotated.getMatrix());
+        assertNotEquals(canonical.tryEncode(mutantDna).getKey(), canonical.tryEncode(humanDna).getKey());
+    }
+
+    // Test 17
+    @Test
+    @DisplayName("Con canonización, un registro guardado con la clave anterior debe reutilizarse sin duplicarlo")
+    void testLegacyKeyLookupReusesStoredRecord() {
+        DnaKeyFactory canonical = canonicalFactory(true);
+        MutantService canonicalService = service(canonical);
+        String[] dna = {"TTAT", "AGGG", "ATGC", "CAGT"};  // no es su propia forma canónica
+        EncodedDna encoded = canonical.tryEncode(dna);
+        byte[] legacyHash = dnaKeyFactory.tryEncode(dna).getKey().bytes();
+        assertNotNull(encoded.getLegacyKey());
+        assertArrayEquals(legacyHash, encoded.getLegacyKey().bytes());
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class))).thenAnswer(invocation ->
+                Arrays.equals(legacyHash, invocation.getArgument(0))
+                        ? Optional.of(new DnaRecord(legacyHash, true)) : Optional.empty());
+
+        assertTrue(canonicalService.analyzeDna(encoded));
+
+        verify(mutantDetector, never()).isMutant(any(PackedDnaMatrix.class));
+        verify(dnaRecordRepository, never()).insertIfAbsent(any(), any(), anyBoolean(), any());
+        verify(verdictCache).put(encoded.getKey(), true);
+        assertNull(canonicalFactory(false).tryEncode(dna).getLegacyKey());
+    }
+
+    // Test 18
+    @Test
+    @DisplayName("Un ADN que el filtro de claves descarta debe detectarse y guardarse sin consultar la BD")
+    void testFilteredKeySkipsLookup() {
+        DnaKeyFilter filter = new DnaKeyFilter(mock(VerdictStore.class), new MutantProperties());
+        filter.initialize();
+        MutantService filtered = service(dnaKeyFactory, filter);
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
+
+        assertTrue(filtered.analyzeDna(mutantDna));
+
+        verify(dnaRecordRepository, never()).findByDnaHash(any(byte[].class));
+        verify(dnaRecordRepository).insertIfAbsent(any(), any(), anyBoolean(), any());
+        assertTrue(filter.mightContain(dnaKeyFactory.tryEncode(mutantDna).getKey()));
+        assertEquals(1, filter.getStats().getSkippedLookups());
+    }
+
+    // Test 19
+    @Test
+    @DisplayName("Si otro request insertó el mismo ADN, debe devolver el veredicto guardado sin contarlo")
+    void testConcurrentInsertReturnsStoredVerdict() {
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new DnaRecord(new byte[33], true)));
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(0);  // ya estaba
+
+        assertTrue(mutantService.analyzeDna(mutantDna));
+
+        verify(dnaRecordRepository, times(2)).findByDnaHash(any(byte[].class));
+        verify(statsService, never()).recordNewDna(anyBoolean());
+        verify(verdictCache).put(any(DnaKey.class), eq(true));
+    }
+
+    // Test 20
+    @Test
+    @DisplayName("Una violación de la clave única al insertar debe tratarse como ADN ya registrado")
+    void testDuplicateKeyViolationIsHandled() {
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new DnaRecord(new byte[33], false)));
+        when(mutantDetector.isMutant(humanMatrix)).thenReturn(false);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any()))
+                .thenThrow(new DataIntegrityViolationException("uk_dna_records_dna_hash"));
+
+        assertFalse(assertDoesNotThrow(() -> mutantService.analyzeDna(humanDna)));
+
+        verify(statsService, never()).recordNewDna(anyBoolean());
+    }
+
+    // Test 21
+    @Test
+    @DisplayName("Debe medir cada fase, el tamaño de la matriz, el veredicto y el resultado de la búsqueda")
+    void testRecordsPipelineMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MutantService measured = service(dnaKeyFactory, dnaKeyFilter, new PipelineMetrics(registry));
+        when(dnaRecordRepository.findByDnaHash(any(byte[].class))).thenReturn(Optional.empty());
+        when(mutantDetector.isMutant(mutantMatrix)).thenReturn(true);
+        when(dnaRecordRepository.insertIfAbsent(any(), any(), anyBoolean(), any())).thenReturn(1);
+
+        assertTrue(measured.analyzeDna(mutantDna));
+
+        for (PipelinePhase phase : PipelinePhase.values()) {
+            assertEquals(1, registry.get("mutant.pipeline.phase").tag("phase", phase.tag()).timer().count(),
+                    phase.tag());
+        }
+        assertEquals(4.0, registry.get("mutant.dna.size").summary().totalAmount());
+        assertEquals(1.0, registry.get("mutant.verdicts").tag("verdict", "mutant").counter().count());
+        assertEquals(1.0, registry.get("mutant.db.lookups").tag("outcome", "miss").counter().count());
+        assertEquals(0.0, registry.get("mutant.db.lookups").tag("outcome", "hit").counter().count());
+    }
+
+    // Test 22
+    @Test
+    @DisplayName("Con el evento JFR habilitado debe registrar la duración de la codificación")
+    void testAnalysisEventRecordsEncodeDuration() throws Exception {
+        doReturn(true).when(verdictCache).getIfPresent(any());
+
+        Path file = Files.createTempFile("analysis", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DnaAnalysisEvent.NAME);
+            recording.start();
+            assertTrue(mutantService.analyzeDna(mutantDna));
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertEquals(1, events.size());
+        assertEquals(DnaAnalysisEvent.CACHE, events.get(0).getString("outcome"));
+        assertTrue(events.get(0).getLong("encodeDuration") > 0);
+    }
+
+    // Test 23
+    @Test
+    @DisplayName("El formato binario debe dar la misma clave que el JSON y rechazar bits de relleno en 1")
+    void testPackedFrameMatchesJsonKey() throws IOException {
+        String[] dna = {"ATGCG", "CAGTG", "TTATG", "AGAAG", "CCCCT"};
+        DnaKey expectedKey = dnaKeyFactory.tryEncode(dna).getKey();
+        doReturn(true).when(verdictCache).getIfPresent(expectedKey);
+
+        assertTrue(mutantService.analyzePacked(new ByteArrayInputStream(PackedDnaFormat.frame(dna))));
+
+        // N = 3: cada fila es un byte y sus 2 bits altos son relleno
+        byte[] padded = PackedDnaFormat.frame(new String[]{"AAA", "AAA", "AAA"});
+        padded[padded.length - 1] |= (byte) 0xC0;
+        assertThrows(InvalidPackedDnaException.class,
+                () -> mutantService.analyzePacked(new ByteArrayInputStream(padded)));
+        byte[] truncated = Arrays.copyOf(PackedDnaFormat.frame(dna), 8);
+        assertThrows(InvalidPackedDnaException.class,
+                () -> mutantService.analyzePacked(new ByteArrayInputStream(truncated)));
+        verify(verdictCache, times(1)).getIfPresent(any());
+    }
+
+    private static DnaKeyFactory canonicalFactory(boolean legacyLookup) {
+        MutantProperties.Hash config = new MutantProperties.Hash();
+        config.setExactMaxSize(0);
+        config.setCanonicalize(true);
+        config.setLegacyLookup(legacyLookup);
+        return new DnaKeyFactory(config);
+    }
+
+    private static String[] square(int n) {
+        String[] dna = new String[n];
+        Arrays.fill(dna, "A".repeat(n));
+        return dna;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.MutantProperties;
+import org.example.dto.DnaBatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MutantStreamServiceTest {
+
+    @Mock
+    private MutantBatchService mutantBatchService;
+
+    private MutantStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        MutantProperties properties = new MutantProperties();
+        properties.getStream().setChunkSize(2);
+        streamService = new MutantStreamService(mutantBatchService, new ObjectMapper(), properties);
+        // Mock: mutante si la primera fila empieza con A; inválido si no hay ADN
+        when(mutantBatchService.analyzeBatch(anyList())).thenAnswer(invocation -> {
+            List<String[]> dnas = invocation.getArgument(0);
+            List<DnaBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < dnas.size(); i++) {
+                String[] dna = dnas.get(i);
+                results.add(dna == null
+                        ? DnaBatchResult.invalid(i, "Secuencia de ADN inválida")
+                        : DnaBatchResult.verdict(i, dna[0].startsWith("A")));
+            }
+            return results;
+        });
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Debe responder una línea por cada línea de entrada, en orden y por bloques")
+    void testWritesOneLinePerInputInChunks() throws Exception {
+        String input = """
+                {"dna":["AAAA","CCCC","TTAT","AGAC"]}
+                {"dna":["TTGC","CAGT","TTAT","AGAC"]}
+
+                {"dna":["ATGC","CAGT","TTAT","AGAC"]}
+                """;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long processed = streamService.analyzeStream(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        assertEquals(3, processed);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"index\":0,\"mutant\":true}", lines[0]);
+        assertEquals("{\"index\":1,\"mutant\":false}", lines[1]);
+        assertEquals("{\"index\":2,\"mutant\":true}", lines[2]);
+        verify(mutantBatchService, times(2)).analyzeBatch(anyList());
+    }
+    // Test 2
+    @Test
+    @DisplayName("Una línea mal formada debe informarse sin cortar el stream")
+    void testMalformedLineIsReportedPerIndex() throws Exception {
+        String input = "{\"dna\":[\"AAAA\",\"CCCC\",\"TTAT\",\"AGAC\"]}\n{\"dna\":[\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        streamService.analyzeStream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"index\":0,\"mutant\":true}", lines[0]);
+        assertTrue(lines[1].contains("\"index\":1"));
+        assertTrue(lines[1].contains(MutantStreamService.INVALID_LINE_MESSAGE));
+    }
+    // Test 3
+    @Test
+    @DisplayName("Una línea más larga que la matriz máxima debe rechazarse sin cortar el stream")
+    void testOverlongLineIsRejectedPerIndex() throws Exception {
+        MutantProperties properties = new MutantProperties();
+        properties.getStream().setMaxSize(4);
+        MutantStreamService bounded = new MutantStreamService(mutantBatchService, new ObjectMapper(), properties);
+        String overlong = "{\"dna\":[\"" + "A".repeat(MutantStreamService.maxLineLength(4)) + "\"]}";
+        String input = overlong + "\r\n{\"dna\":[\"AAAA\",\"CCCC\",\"TTAT\",\"AGAC\"]}\r\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long processed = bounded.analyzeStream(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        assertEquals(2, processed);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[0].contains("\"index\":0"));
+        assertTrue(lines[0].contains(MutantStreamService.LINE_TOO_LONG_MESSAGE));
+        assertEquals("{\"index\":1,\"mutant\":true}", lines[1]);
+    }
+}
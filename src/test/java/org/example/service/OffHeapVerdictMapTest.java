@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.example.config.MutantProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapVerdictMapTest {
+
+    // Test 1
+    @Test
+    @DisplayName("Debe encontrar cada veredicto después de crecer por segmentos")
+    void testGetAfterGrowing() {
+        OffHeapVerdictMap map = new OffHeapVerdictMap(4, 16, 4);
+        long initialMemory = map.memoryBytes();
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(map.put(shaKey(i), i % 3 == 0));
+        }
+
+        assertEquals(50_000, map.size());
+        assertTrue(map.memoryBytes() > initialMemory);
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i % 3 == 0 ? 1 : 0, map.get(shaKey(i)));
+        }
+        assertEquals(OffHeapVerdictMap.ABSENT, map.get(shaKey(-1)));
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Claves de distinto largo o tag con los mismos bytes no deben confundirse")
+    void testKeysDifferingInLengthOrTag() {
+        OffHeapVerdictMap map = new OffHeapVerdictMap(2, 16, 1);
+        byte[] exact = {DnaKeyFactory.EXACT_KEY_TAG, 4, 0x1b, 0x00};
+        byte[] shorter = {DnaKeyFactory.EXACT_KEY_TAG, 4, 0x1b};
+        byte[] otherTag = {DnaHashAlgorithm.MURMUR3_128.getTag(), 4, 0x1b, 0x00};
+
+        map.put(exact, true);
+
+        assertEquals(1, map.get(exact));
+        assertEquals(OffHeapVerdictMap.ABSENT, map.get(shorter));
+        assertEquals(OffHeapVerdictMap.ABSENT, map.get(otherTag));
+        assertFalse(map.put(shaKey(1), true));  // 33 bytes no entran en slots de 2 palabras
+        assertEquals(2, OffHeapVerdictMap.keyWordsFor(DnaHashAlgorithm.MURMUR3_128, 7));
+        assertEquals(4, OffHeapVerdictMap.keyWordsFor(DnaHashAlgorithm.MURMUR3_128, 11));
+        assertEquals(4, OffHeapVerdictMap.keyWordsFor(DnaHashAlgorithm.SHA_256, 0));
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("Las lecturas concurrentes con escrituras y crecimientos no deben perder claves ya escritas")
+    void testConcurrentReadsDuringWrites() throws Exception {
+        OffHeapVerdictMap map = new OffHeapVerdictMap(4, 16, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int first = thread * 20_000;
+                tasks.add(executor.submit(() -> {
+                    for (int i = first; i < first + 20_000; i++) {
+                        map.put(shaKey(i), (i & 1) == 0);
+                        assertEquals((i & 1) == 0 ? 1 : 0, map.get(shaKey(i)));
+                        if (i > first) {
+                            assertEquals(((i - 1) & 1) == 0 ? 1 : 0, map.get(shaKey(i - 1)));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(80_000, map.size());
+    }
+
+    // Test 4
+    @Test
+    @DisplayName("La cache OFF_HEAP debe servir los veredictos y dejar de admitir al llegar al máximo")
+    void testOffHeapVerdictCache() {
+        MutantProperties properties = new MutantProperties();
+        properties.getCache().setType(MutantProperties.Cache.Type.OFF_HEAP);
+        properties.getCache().setMaxEntries(2);
+        VerdictCache cache = new VerdictCache(properties);
+        DnaKey first = DnaKey.of(shaKey(1));
+        DnaKey second = DnaKey.of(shaKey(2));
+        DnaKey third = DnaKey.of(shaKey(3));
+        DnaKey verified = DnaKey.of(shaKey(4), new byte[]{1});
+
+        cache.put(first, true);
+        cache.put(second, false);
+        cache.put(third, true);
+        cache.put(verified, true);
+
+        assertTrue(cache.getIfPresent(first));
+        assertFalse(cache.getIfPresent(DnaKey.of(shaKey(2))));
+        assertNull(cache.getIfPresent(third));
+        assertNull(cache.getIfPresent(verified));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    private static byte[] shaKey(int i) {
+        byte[] key = new byte[DnaHashAlgorithm.SHA_256.getKeyLength()];
+        new Random(i).nextBytes(key);
+        key[0] = DnaHashAlgorithm.SHA_256.getTag();
+        return key;
+    }
+}
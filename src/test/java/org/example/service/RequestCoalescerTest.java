@@ -0,0 +1,126 @@
+package org.example.service;
+
+import org.example.config.MutantProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private final DnaKey key = DnaKeyFactory.defaults().tryEncode(new String[]{"ATGC", "CAGT", "TTAT", "AGGG"}).getKey();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Test 1
+    @Test
+    @DisplayName("Los requests concurrentes con la misma clave deben compartir un único cálculo")
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(new MutantProperties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+
+        Future<Boolean> leader = executor.submit(() -> coalescer.execute(key, () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Future<Boolean>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> coalescer.execute(key, () -> {
+                computations.incrementAndGet();
+                return false;
+            })));
+        }
+        while (coalescer.coalescedRequests() < 3) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS));
+        for (Future<Boolean> follower : followers) {
+            assertTrue(follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(3, coalescer.coalescedRequests());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Un fallo debe propagarse a los que esperan y no quedar registrado")
+    void testFailureIsPropagatedAndCleanedUp() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(new MutantProperties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Boolean> leader = executor.submit(() -> coalescer.execute(key, () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("base de datos caída");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Boolean> follower = executor.submit(() -> coalescer.execute(key, () -> true));
+        while (coalescer.coalescedRequests() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertInstanceOf(IllegalStateException.class,
+                assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(0, coalescer.inFlight());
+        assertFalse(coalescer.execute(key, () -> false));
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("Si el primero tarda más que la espera máxima, el siguiente debe resolver por su cuenta")
+    void testWaitIsBounded() throws Exception {
+        MutantProperties properties = new MutantProperties();
+        properties.getCoalescing().setMaxWait(Duration.ofMillis(50));
+        RequestCoalescer coalescer = new RequestCoalescer(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Boolean> leader = executor.submit(() -> coalescer.execute(key, () -> {
+            started.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertFalse(coalescer.execute(key, () -> false));  // resultado propio, no el del primero
+        release.countDown();
+        assertTrue(leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, coalescer.coalescedRequests());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
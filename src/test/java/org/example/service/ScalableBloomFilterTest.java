@@ -0,0 +1,85 @@
+package org.example.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    // Test 1
+    @Test
+    @DisplayName("No debe dar falsos negativos al crecer agregando slices")
+    void testNoFalseNegativesWhileGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        Random random = new Random(15L);
+        long[] hashes = new long[20_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            filter.put(hashes[i]);
+        }
+
+        for (long hash : hashes) {
+            assertTrue(filter.mightContain(hash));
+        }
+        assertTrue(filter.sliceCount() > 1);
+        assertTrue(filter.capacity() >= hashes.length);
+        assertEquals(hashes.length, filter.elements());
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("La tasa de falsos positivos medida y la estimada deben respetar la objetivo")
+    void testFalsePositiveRateStaysUnderTarget() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        Random random = new Random(16L);
+        for (int i = 0; i < 30_000; i++) {
+            filter.put(random.nextLong());
+        }
+
+        int falsePositives = 0;
+        final int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+        assertTrue((double) falsePositives / probes < 0.01, "medida=" + falsePositives);
+        assertTrue(filter.estimatedFpp() < 0.01, "estimada=" + filter.estimatedFpp());
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("Reservar lugar para una carga grande debe agregar un único slice de ese tamaño")
+    void testReserveAddsOneSizedSlice() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        long memoryBefore = filter.memoryBytes();
+
+        filter.reserve(500);
+        assertEquals(1, filter.sliceCount());
+
+        filter.reserve(50_000);
+        assertEquals(2, filter.sliceCount());
+        assertTrue(filter.capacity() >= 51_000);
+        assertTrue(filter.memoryBytes() > memoryBefore);
+    }
+
+    // Test 4
+    @Test
+    @DisplayName("Las claves de deduplicación deben encontrarse por sus bytes")
+    void testDnaKeysAreFoundByBytes() {
+        DnaKeyFilter disabled = DnaKeyFilter.disabled();
+        DnaKey key = DnaKeyFactory.defaults().tryEncode(new String[]{"ATGC", "CAGT", "TTAT", "AGGG"}).getKey();
+        DnaKey other = DnaKeyFactory.defaults().tryEncode(new String[]{"ATGC", "CAGT", "TTAT", "AGAT"}).getKey();
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.001);
+
+        filter.put(Murmur3.hash64(key.bytes()));
+
+        assertTrue(filter.mightContain(Murmur3.hash64(key.bytes().clone())));
+        assertFalse(filter.mightContain(Murmur3.hash64(other.bytes())));
+        assertTrue(disabled.mightContain(other));
+        assertFalse(disabled.getStats().isEnabled());
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.service;
 
+import org.example.dto.CacheStatsResponse;
 import org.example.dto.StatsResponse;
 import org.example.repository.DnaRecordRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -10,6 +11,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -18,6 +22,15 @@ class StatsServiceTest {
     @Mock
     private DnaRecordRepository repository;
 
+    @Mock
+    private VerdictCache verdictCache;
+
+    @Mock
+    private DnaKeyFilter dnaKeyFilter;
+
+    @Mock
+    private RequestCoalescer requestCoalescer;
+
     @InjectMocks
     private StatsService statsService;
 
@@ -30,6 +43,7 @@ class StatsServiceTest {
         when(repository.countByIsMutant(false)).thenReturn(100L);
 
         // ACT
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         // ASSERT
@@ -44,6 +58,7 @@ class StatsServiceTest {
         when(repository.countByIsMutant(true)).thenReturn(10L);
         when(repository.countByIsMutant(false)).thenReturn(0L);
 
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         assertEquals(10, stats.getCountMutantDna());
@@ -57,6 +72,7 @@ class StatsServiceTest {
         when(repository.countByIsMutant(true)).thenReturn(0L);
         when(repository.countByIsMutant(false)).thenReturn(0L);
 
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         assertEquals(0, stats.getCountMutantDna());
@@ -70,6 +86,7 @@ class StatsServiceTest {
         when(repository.countByIsMutant(true)).thenReturn(1L);
         when(repository.countByIsMutant(false)).thenReturn(3L);
 
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         assertEquals(1, stats.getCountMutantDna());
@@ -83,6 +100,7 @@ class StatsServiceTest {
         when(repository.countByIsMutant(true)).thenReturn(50L);
         when(repository.countByIsMutant(false)).thenReturn(50L);
 
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         assertEquals(50, stats.getCountMutantDna());
@@ -96,10 +114,96 @@ class StatsServiceTest {
         when(repository.countByIsMutant(true)).thenReturn(1000000L);
         when(repository.countByIsMutant(false)).thenReturn(2000000L);
 
+        statsService.initializeCounters();
         StatsResponse stats = statsService.getStats();
 
         assertEquals(1000000, stats.getCountMutantDna());
         assertEquals(2000000, stats.getCountHumanDna());
         assertEquals(0.5, stats.getRatio(), 0.001);  // 1M / 2M = 0.5
     }
-}
\ No newline at end of file
+    // Test 7
+    @Test
+    @DisplayName("Debe exponer los contadores de la cache de veredictos")
+    void testGetCacheStats() {
+        when(verdictCache.isEnabled()).thenReturn(true);
+        when(verdictCache.size()).thenReturn(3L);
+        when(verdictCache.hitCount()).thenReturn(10L);
+        when(verdictCache.missCount()).thenReturn(4L);
+        when(verdictCache.evictionCount()).thenReturn(1L);
+        when(requestCoalescer.coalescedRequests()).thenReturn(2L);
+
+        CacheStatsResponse stats = statsService.getCacheStats();
+
+        assertEquals(3, stats.getSize());
+        assertEquals(10, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getCoalescedRequests());
+    }
+    // Test 8
+    @Test
+    @DisplayName("GET /stats no debe consultar la base de datos después de inicializar")
+    void testGetStatsUsesInMemoryCounters() {
+        when(repository.countByIsMutant(true)).thenReturn(2L);
+        when(repository.countByIsMutant(false)).thenReturn(4L);
+        statsService.initializeCounters();
+
+        statsService.recordNewDna(true);
+        statsService.recordNewDna(false);
+        statsService.getStats();
+        StatsResponse stats = statsService.getStats();
+
+        assertEquals(3, stats.getCountMutantDna());
+        assertEquals(5, stats.getCountHumanDna());
+        assertEquals(0.6, stats.getRatio(), 0.001);
+        verify(repository, times(1)).countByIsMutant(true);
+        verify(repository, times(1)).countByIsMutant(false);
+    }
+    // Test 9
+    @Test
+    @DisplayName("La reconciliación debe corregir el desvío que se repite contra la base de datos")
+    void testReconcileCorrectsDrift() {
+        statsService.recordNewDna(true);
+        statsService.recordNewDna(true);
+        statsService.recordNewDna(false);
+        when(repository.countByIsMutant(true)).thenReturn(5L);
+        when(repository.countByIsMutant(false)).thenReturn(1L);
+
+        statsService.reconcile();
+        assertEquals(2, statsService.getStats().getCountMutantDna());  // primera vez: solo se anota
+        statsService.reconcile();
+        StatsResponse stats = statsService.getStats();
+
+        assertEquals(5, stats.getCountMutantDna());
+        assertEquals(1, stats.getCountHumanDna());
+    }
+    // Test 10
+    @Test
+    @DisplayName("Sin registros nuevos no debe consultar la base de datos")
+    void testRecordNewDnaDoesNotQueryDatabase() {
+        statsService.recordNewDna(false);
+
+        StatsResponse stats = statsService.getStats();
+
+        assertEquals(1, stats.getCountHumanDna());
+        verify(repository, never()).countByIsMutant(true);
+        verify(repository, never()).countByIsMutant(false);
+    }
+
+    // Test 11
+    @Test
+    @DisplayName("Un desvío que no se repite no debe corregirse")
+    void testReconcileIgnoresTransientDrift() {
+        statsService.recordNewDna(true);
+        // registro ya guardado cuyo recordNewDna todavía no corrió
+        when(repository.countByIsMutant(true)).thenReturn(2L);
+        when(repository.countByIsMutant(false)).thenReturn(0L);
+        statsService.reconcile();
+
+        statsService.recordNewDna(true);
+        statsService.reconcile();
+        statsService.reconcile();
+
+        assertEquals(2, statsService.getStats().getCountMutantDna());
+    }
+}
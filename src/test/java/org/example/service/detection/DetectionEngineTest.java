@@ -0,0 +1,195 @@
+package org.example.service.detection;
+
+import org.example.service.MutantDetector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DetectionEngineTest {
+
+    private static final List<String[]> KNOWN_CASES = List.of(
+            new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"},
+            new String[]{"AAAAGA", "CAGTGC", "TTATGT", "AGAAGG", "CACCTA", "TCACTG"},
+            new String[]{"TTTTGA", "CAGTGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"},
+            new String[]{"ATGCGA", "CAGTGC", "TTATTT", "AGAAGG", "CCCCTA", "TCACTG"},
+            new String[]{"ATGCGA", "CAGTGC", "TTATTT", "AGACGG", "GCGTCA", "TCACTG"},
+            new String[]{"ATGC", "CAGT", "TTAT", "AGAC"},
+            new String[]{"AAAA", "CCCC", "TTAT", "AGAC"},
+            new String[]{"ATGCGA", "CAGTGC", "TTATGT", "AGAAGG", "CCGCTA", "TCGCTG"},
+            new String[]{"AAAAGA", "AAAAGC", "TTATGT", "AGAAGG", "CCCCTA", "TCACTG"},
+            new String[]{"AAAAAA", "AAAAAA", "AAAAAA", "AAAAAA", "AAAAAA", "AAAAAA"},
+            new String[]{"ATGCGAATGC", "CAGTGCCAGT", "TTATGTTTAT", "AGAAGGATAA", "CCCCTACCCC",
+                    "TCACTGTCAC", "ATGCGAATGC", "CAGTGCCAGT", "TTATGTTTAT", "AGAAGGATAA"},
+            new String[]{"A"},
+            new String[]{"AT", "GC"},
+            new String[]{"AAA", "AAA", "AAA"}
+    );
+
+    // Test 1
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("Debe coincidir con el motor escalar en los casos conocidos")
+    void testKnownCasesMatchScalar(DetectionMode mode) {
+        MutantDetector scalar = new MutantDetector(DetectionMode.SCALAR);
+        MutantDetector candidate = new MutantDetector(mode);
+        for (String[] dna : KNOWN_CASES) {
+            assertEquals(scalar.isMutant(dna), candidate.isMutant(dna), String.join(",", dna));
+            assertEquals(countAll(DetectionMode.SCALAR, dna), countAll(mode, dna), String.join(",", dna));
+        }
+    }
+
+    // Test 2
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("Debe contar las mismas secuencias que el motor escalar en matrices aleatorias")
+    void testRandomMatricesMatchScalar(DetectionMode mode) {
+        Random random = new Random(20251125L);
+        for (int i = 0; i < 500; i++) {
+            int n = 1 + random.nextInt(i < 450 ? 40 : 140);
+            String[] dna = randomDna(random, n, 1 + random.nextInt(4));
+            assertEquals(countAll(DetectionMode.SCALAR, dna), countAll(mode, dna), "n=" + n);
+        }
+    }
+
+    // Test 3
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("Rangos de filas disjuntos deben sumar el total sin duplicar secuencias")
+    void testDisjointRowRangesAddUp(DetectionMode mode) {
+        Random random = new Random(42L);
+        for (int i = 0; i < 100; i++) {
+            int n = 4 + random.nextInt(70);
+            String[] dna = randomDna(random, n, 2);
+            int split = random.nextInt(n + 1);
+            assertEquals(countAll(mode, dna),
+                    count(mode, dna, 0, split) + count(mode, dna, split, n), "n=" + n + " split=" + split);
+        }
+    }
+
+    // Test 4
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("La detección por bandas en paralelo debe coincidir con la secuencial")
+    void testParallelBandsMatchSequential(DetectionMode mode) {
+        Random random = new Random(7L);
+        MutantDetector sequential = new MutantDetector(mode);
+        MutantDetector banded = new MutantDetector(mode, 1, 4);
+        try (ParallelDetectionEngine parallelEngine = new ParallelDetectionEngine(mode.createEngine(), 1, 4)) {
+            for (int i = 0; i < 60; i++) {
+                int n = 40 + random.nextInt(260);
+                String[] dna = randomDna(random, n, 2 + random.nextInt(3));
+                assertEquals(countAll(mode, dna), count(parallelEngine, dna, 0, n), "n=" + n);
+                assertEquals(sequential.isMutant(dna), banded.isMutant(dna), "n=" + n);
+            }
+        } finally {
+            banded.shutdown();
+        }
+    }
+
+    // Test 5
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("Las ocho simetrías deben tener el mismo conteo y la misma forma canónica")
+    void testSymmetriesShareCountAndCanonicalForm(DetectionMode mode) {
+        Random random = new Random(8L);
+        DetectionEngine engine = mode.createEngine();
+        for (int i = 0; i < 100; i++) {
+            int n = 1 + random.nextInt(50);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, 2));
+            int expected = engine.countSequences(matrix, 0, n, Integer.MAX_VALUE);
+            PackedDnaMatrix canonical = matrix.canonical();
+            for (int symmetry = 0; symmetry < PackedDnaMatrix.SYMMETRIES; symmetry++) {
+                PackedDnaMatrix transformed = matrix.transformed(symmetry);
+                assertEquals(expected, engine.countSequences(transformed, 0, n, Integer.MAX_VALUE),
+                        "n=" + n + " simetría=" + symmetry);
+                assertEquals(canonical, transformed.canonical(), "n=" + n + " simetría=" + symmetry);
+            }
+        }
+    }
+
+    // Test 6
+    @Test
+    @DisplayName("La forma canónica debe ser la menor de las ocho simetrías leyendo base por base")
+    void testCanonicalIsLexicographicMinimum() {
+        Random random = new Random(9L);
+        for (int i = 0; i < 300; i++) {
+            int n = 1 + random.nextInt(i < 200 ? 40 : 140);  // incluye filas de varias palabras
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, 1 + random.nextInt(2)));
+            PackedDnaMatrix expected = matrix;
+            for (int symmetry = 1; symmetry < PackedDnaMatrix.SYMMETRIES; symmetry++) {
+                PackedDnaMatrix transformed = matrix.transformed(symmetry);
+                if (compareBases(transformed, expected) < 0) {
+                    expected = transformed;
+                }
+            }
+            assertEquals(expected, matrix.canonical(), "n=" + n);
+        }
+    }
+
+    // Test 7
+    @ParameterizedTest
+    @EnumSource(DetectionMode.class)
+    @DisplayName("La fila de corte debe ser la primera con la que el conteo alcanza el límite")
+    void testScanReportsExitRow(DetectionMode mode) {
+        Random random = new Random(10L);
+        DetectionEngine engine = mode.createEngine();
+        for (int i = 0; i < 300; i++) {
+            int n = 4 + random.nextInt(60);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(randomDna(random, n, 3 + random.nextInt(2)));
+            int limit = 1 + random.nextInt(3);
+            int expected = -1;
+            for (int row = 1; row <= n && expected < 0; row++) {
+                if (engine.countSequences(matrix, 0, row, Integer.MAX_VALUE) >= limit) {
+                    expected = row;
+                }
+            }
+            long result = engine.scan(matrix, 0, n, limit);
+            assertEquals(expected, DetectionEngine.exitRow(result), "n=" + n + " límite=" + limit);
+            assertEquals(engine.countSequences(matrix, 0, n, limit), DetectionEngine.count(result));
+        }
+    }
+
+    private static int compareBases(PackedDnaMatrix first, PackedDnaMatrix second) {
+        for (int row = 0; row < first.size(); row++) {
+            for (int col = 0; col < first.size(); col++) {
+                int difference = first.base(row, col) - second.base(row, col);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static int countAll(DetectionMode mode, String[] dna) {
+        return count(mode, dna, 0, dna.length);
+    }
+
+    private static int count(DetectionMode mode, String[] dna, int fromRow, int toRow) {
+        return count(mode.createEngine(), dna, fromRow, toRow);
+    }
+
+    private static int count(DetectionEngine engine, String[] dna, int fromRow, int toRow) {
+        return engine.countSequences(PackedDnaMatrix.encode(dna), fromRow, toRow, Integer.MAX_VALUE);
+    }
+
+    /** Alfabetos reducidos para que aparezcan secuencias con frecuencia. */
+    static String[] randomDna(Random random, int n, int alphabetSize) {
+        final char[] bases = {'A', 'T', 'C', 'G'};
+        String[] dna = new String[n];
+        for (int row = 0; row < n; row++) {
+            char[] chars = new char[n];
+            for (int col = 0; col < n; col++) {
+                chars[col] = bases[random.nextInt(alphabetSize)];
+            }
+            dna[row] = new String(chars);
+        }
+        return dna;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.service.detection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunLengthDetectionEngineTest {
+
+    private final DetectionEngine scalar = new ScalarDetectionEngine();
+    private final DetectionEngine runLength = new RunLengthDetectionEngine();
+
+    // Test 1
+    @Test
+    @DisplayName("Debe contar lo mismo que el motor escalar en matrices aleatorias")
+    void testRandomMatricesMatchScalar() {
+        Random random = new Random(20251126L);
+        for (int i = 0; i < 2000; i++) {
+            int n = 1 + random.nextInt(i < 1900 ? 48 : 200);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(
+                    DetectionEngineTest.randomDna(random, n, 1 + random.nextInt(4)));
+            assertEquals(scalar.countSequences(matrix, 0, n, Integer.MAX_VALUE),
+                    runLength.countSequences(matrix, 0, n, Integer.MAX_VALUE), "n=" + n);
+        }
+    }
+
+    // Test 2
+    @Test
+    @DisplayName("Con límite debe cortar en cuanto lo alcanza sin pasarse del total")
+    void testLimitStopsEarlyLikeScalar() {
+        Random random = new Random(11L);
+        for (int i = 0; i < 1000; i++) {
+            int n = 4 + random.nextInt(40);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(DetectionEngineTest.randomDna(random, n, 2));
+            int total = scalar.countSequences(matrix, 0, n, Integer.MAX_VALUE);
+            int limit = 1 + random.nextInt(4);
+            int counted = runLength.countSequences(matrix, 0, n, limit);
+            assertEquals(Math.min(total, limit), Math.min(counted, limit), "n=" + n + " límite=" + limit);
+            assertTrue(counted <= total, "n=" + n + " límite=" + limit);
+        }
+    }
+
+    // Test 3
+    @Test
+    @DisplayName("Cualquier partición en bandas debe sumar el total del motor escalar")
+    void testArbitraryBandsAddUpToScalarTotal() {
+        Random random = new Random(12L);
+        for (int i = 0; i < 300; i++) {
+            int n = 4 + random.nextInt(80);
+            PackedDnaMatrix matrix = PackedDnaMatrix.encode(DetectionEngineTest.randomDna(random, n, 2));
+            int sum = 0;
+            for (int from = 0, to; from < n; from = to) {
+                to = Math.min(n, from + 1 + random.nextInt(8));
+                sum += runLength.countSequences(matrix, from, to, Integer.MAX_VALUE);
+            }
+            assertEquals(scalar.countSequences(matrix, 0, n, Integer.MAX_VALUE), sum, "n=" + n);
+        }
+    }
+}